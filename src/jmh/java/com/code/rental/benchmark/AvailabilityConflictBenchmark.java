@@ -0,0 +1,79 @@
+package com.code.rental.benchmark;
+
+import com.code.rental.availability.AvailabilityIndex;
+import com.code.rental.domain.Property;
+import com.code.rental.repository.AvailabilityRepository;
+import com.code.rental.repository.PropertyRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict check for a free day in the middle of a property with {@code entries} one-day blocks, answered by the
+ * database query and by the in-memory availability index.
+ * <p>
+ * The query is a single range seek on {@code idx_property_status_dates}, answered from the index without reading the
+ * table rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AvailabilityConflictBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    private int entries;
+
+    private BenchmarkContext context;
+    private AvailabilityRepository availabilityRepository;
+    private AvailabilityIndex availabilityIndex;
+    private Property property;
+    private LocalDate freeDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        availabilityRepository = context.getBean(AvailabilityRepository.class);
+        availabilityIndex = context.getBean(AvailabilityIndex.class);
+
+        final Long ownerId = context.createUser("owner@benchmark.com");
+        final Long propertyId = context.createProperty(ownerId, "Benchmark House");
+        final LocalDate firstDay = LocalDate.now().plusDays(1);
+        context.seedBlocks(propertyId, firstDay, entries);
+
+        property = context.getBean(PropertyRepository.class).findById(propertyId).orElseThrow();
+        freeDay = firstDay.plusDays(2L * (entries / 2) + 1);
+        // load the index outside of the measurement
+        availabilityIndex.hasConflict(propertyId, freeDay, freeDay);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean repositoryHasConflict() {
+        return availabilityRepository.hasConflict(property, freeDay, freeDay);
+    }
+
+    @Benchmark
+    public boolean indexHasConflict() {
+        return availabilityIndex.hasConflict(property.getId(), freeDay, freeDay);
+    }
+}
@@ -0,0 +1,143 @@
+package com.code.rental.benchmark;
+
+import com.code.rental.RentalServiceApplication;
+import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.domain.AvailabilityEntryFactory;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Boots the application against its own in-memory H2 database and seeds rows in JDBC-batched
+ * transactions, bypassing the services.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private static final int SEED_FLUSH_SIZE = 1000;
+
+    private final ConfigurableApplicationContext context;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    BenchmarkContext(final String... extraArgs) {
+        // devtools would restart the application by re-running the launching main class
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        final List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        args.addAll(List.of(extraArgs));
+        context = new SpringApplicationBuilder(RentalServiceApplication.class)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+    }
+
+    int port() {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    Long createUser(final String email) {
+        return transactionTemplate.execute(status -> {
+            final User user = User.builder().name(email).email(email).password("123456").build();
+            entityManager.persist(user);
+            return user.getId();
+        });
+    }
+
+    Long createProperty(final Long ownerId, final String name) {
+        return transactionTemplate.execute(status -> {
+            final Property property = Property.builder()
+                    .name(name)
+                    .location("Benchmark")
+                    .owner(entityManager.getReference(User.class, ownerId))
+                    .build();
+            entityManager.persist(property);
+            return property.getId();
+        });
+    }
+
+    /**
+     * Inserts {@code count} properties of the owner, the location of each one given by its index, and returns their IDs.
+     */
+    List<Long> seedProperties(final Long ownerId, final int count, final IntFunction<String> location) {
+        final List<Long> ids = new ArrayList<>(count);
+        seed(count, i -> Property.builder()
+                .name("Property " + i)
+                .location(location.apply(i))
+                .owner(entityManager.getReference(User.class, ownerId))
+                .build(), property -> ids.add(property.getId()));
+        return ids;
+    }
+
+    /**
+     * Inserts one-day ACTIVE bookings of the guest on every other day starting at {@code firstDay}.
+     */
+    void seedBookings(final Long propertyId, final Long guestId, final LocalDate firstDay, final int count) {
+        seed(count, i -> {
+            final LocalDate day = firstDay.plusDays(2L * i);
+            return AvailabilityEntryFactory.createBooking(entityManager.getReference(Property.class, propertyId),
+                    entityManager.getReference(User.class, guestId), null, null, null, day, day);
+        });
+    }
+
+    /**
+     * Inserts one-day ACTIVE blocks on every other day starting at {@code firstDay}.
+     */
+    void seedBlocks(final Long propertyId, final LocalDate firstDay, final int count) {
+        seed(count, i -> {
+            final LocalDate day = firstDay.plusDays(2L * i);
+            return AvailabilityEntryFactory.createBlock(entityManager.getReference(Property.class, propertyId), day, day);
+        });
+    }
+
+    /**
+     * Inserts a one-day ACTIVE block on {@code day} for each of the properties.
+     */
+    void seedBlocks(final List<Long> propertyIds, final LocalDate day) {
+        seed(propertyIds.size(), i -> AvailabilityEntryFactory.createBlock(
+                entityManager.getReference(Property.class, propertyIds.get(i)), day, day));
+    }
+
+    private void seed(final int count, final IntFunction<AvailabilityEntry> entry) {
+        seed(count, entry, persisted -> {
+        });
+    }
+
+    // one transaction of JDBC-batched inserts, flushed and cleared every SEED_FLUSH_SIZE rows
+    private <T> void seed(final int count, final IntFunction<T> row, final Consumer<T> persisted) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                final T entity = row.apply(i);
+                entityManager.persist(entity);
+                persisted.accept(entity);
+                if ((i + 1) % SEED_FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
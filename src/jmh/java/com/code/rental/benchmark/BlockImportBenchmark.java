@@ -0,0 +1,94 @@
+package com.code.rental.benchmark;
+
+import com.code.rental.controller.dto.request.BlockRequestDTO;
+import com.code.rental.controller.dto.response.BlockBatchResponseDTO;
+import com.code.rental.security.services.UserPrinciple;
+import com.code.rental.service.BlockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Importing a channel manager calendar into an empty property: one {@code createBlocks} call against the same blocks
+ * sent one {@code createBlock} call at a time. The target for the batch is 10k blocks in under a second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BlockImportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int blocks;
+
+    private BenchmarkContext context;
+    private BlockService blockService;
+    private Long ownerId;
+    private List<BlockRequestDTO> blockDTOs;
+    private int properties;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        blockService = context.getBean(BlockService.class);
+        ownerId = context.createUser("owner@benchmark.com");
+
+        final UserPrinciple principal = UserPrinciple.builder()
+                .id(ownerId)
+                .name("owner")
+                .email("owner@benchmark.com")
+                .authorities(new ArrayList<>())
+                .build();
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Setup(Level.Invocation)
+    public void newProperty() {
+        final Long propertyId = context.createProperty(ownerId, "Synced House " + properties++);
+        final LocalDate firstDay = LocalDate.now().plusDays(1);
+        blockDTOs = IntStream.range(0, blocks)
+                .mapToObj(i -> BlockRequestDTO.builder()
+                        .propertyId(propertyId)
+                        .startDate(firstDay.plusDays(2L * i))
+                        .endDate(firstDay.plusDays(2L * i))
+                        .build())
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BlockBatchResponseDTO createBlocks() {
+        return blockService.createBlocks(blockDTOs);
+    }
+
+    @Benchmark
+    public int createBlockOneByOne() {
+        blockDTOs.forEach(blockService::createBlock);
+        return blockDTOs.size();
+    }
+}
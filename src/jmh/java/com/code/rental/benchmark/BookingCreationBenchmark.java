@@ -0,0 +1,98 @@
+package com.code.rental.benchmark;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.repository.AvailabilityRepository;
+import com.code.rental.security.services.UserPrinciple;
+import com.code.rental.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking writes that always succeed: every invocation books the next free day of its property, so the property
+ * grows by one entry per operation like a busy listing would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingCreationBenchmark {
+
+    private BenchmarkContext context;
+    private AvailabilityRepository availabilityRepository;
+    private BookingService bookingService;
+    private Authentication guest;
+    private Long guestId;
+    private Long insertPropertyId;
+    private Long servicePropertyId;
+    private LocalDate firstDay;
+    private final AtomicLong insertDay = new AtomicLong();
+    private final AtomicLong serviceDay = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        availabilityRepository = context.getBean(AvailabilityRepository.class);
+        bookingService = context.getBean(BookingService.class);
+
+        final Long ownerId = context.createUser("owner@benchmark.com");
+        guestId = context.createUser("guest@benchmark.com");
+        insertPropertyId = context.createProperty(ownerId, "Insert House");
+        servicePropertyId = context.createProperty(ownerId, "Service House");
+        firstDay = LocalDate.now().plusDays(1);
+
+        final UserPrinciple principal = UserPrinciple.builder()
+                .id(guestId)
+                .name("guest")
+                .email("guest@benchmark.com")
+                .authorities(new ArrayList<>())
+                .build();
+        guest = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Long> insertBookingIfNoConflict() {
+        final LocalDate day = firstDay.plusDays(insertDay.getAndIncrement());
+        return availabilityRepository.insertBookingIfNoConflict(insertPropertyId, day, day, guestId,
+                "Guest", "guest@benchmark.com", null);
+    }
+
+    @Benchmark
+    public BookingResponseDTO createBooking() {
+        SecurityContextHolder.getContext().setAuthentication(guest);
+        final LocalDate day = firstDay.plusDays(serviceDay.getAndIncrement());
+        return bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(servicePropertyId)
+                .startDate(day)
+                .endDate(day)
+                .guestName("Guest")
+                .guestEmail("guest@benchmark.com")
+                .build());
+    }
+}
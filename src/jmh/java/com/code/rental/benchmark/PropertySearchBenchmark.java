@@ -0,0 +1,102 @@
+package com.code.rental.benchmark;
+
+import com.code.rental.controller.dto.response.PageResponseDTO;
+import com.code.rental.controller.dto.response.PropertyResponseDTO;
+import com.code.rental.service.PropertyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Availability search over {@code properties} properties spread over 100 locations, every other property of each
+ * location blocked on the searched day, and all of the last location. Sampled, so the result carries the percentiles:
+ * the target is a p99 under 50 ms at 100k properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PropertySearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int LOCATIONS = 100;
+
+    @Param({"100000"})
+    private int properties;
+
+    private BenchmarkContext context;
+    private PropertyService propertyService;
+    private LocalDate day;
+    private int lastPage;
+    private Long lastPageAfter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        propertyService = context.getBean(PropertyService.class);
+
+        final Long ownerId = context.createUser("owner@benchmark.com");
+        final List<Long> propertyIds = context.seedProperties(ownerId, properties, i -> "City " + (i % LOCATIONS));
+        day = LocalDate.now().plusDays(1);
+        final Map<Boolean, List<Long>> blocked = IntStream.range(0, properties).boxed().collect(Collectors.partitioningBy(
+                i -> i / LOCATIONS % 2 == 0 || i % LOCATIONS == LOCATIONS - 1,
+                Collectors.mapping(propertyIds::get, Collectors.toList())));
+        context.seedBlocks(blocked.get(true), day);
+
+        final List<Long> free = blocked.get(false);
+        lastPage = (free.size() - 1) / PAGE_SIZE;
+        lastPageAfter = free.get(lastPage * PAGE_SIZE - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageResponseDTO<PropertyResponseDTO> firstPage() {
+        return propertyService.getAvailableProperties(day, day, null, null, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageResponseDTO<PropertyResponseDTO> firstPageByLocation() {
+        return propertyService.getAvailableProperties(day, day, "city 42", null, 0, PAGE_SIZE);
+    }
+
+    // no property of the location is free, every one of them is read to tell
+    @Benchmark
+    public PageResponseDTO<PropertyResponseDTO> bookedOutLocation() {
+        return propertyService.getAvailableProperties(day, day, "city 99", null, 0, PAGE_SIZE);
+    }
+
+    // the page offset is skipped row by row, the deepest page is the worst case
+    @Benchmark
+    public PageResponseDTO<PropertyResponseDTO> lastPage() {
+        return propertyService.getAvailableProperties(day, day, null, null, lastPage, PAGE_SIZE);
+    }
+
+    // the same page read after the last ID of the previous one, seeking the primary key instead
+    @Benchmark
+    public PageResponseDTO<PropertyResponseDTO> lastPageAfter() {
+        return propertyService.getAvailableProperties(day, day, null, lastPageAfter, 0, PAGE_SIZE);
+    }
+}
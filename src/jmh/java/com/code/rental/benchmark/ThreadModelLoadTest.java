@@ -0,0 +1,142 @@
+package com.code.rental.benchmark;
+
+import com.code.rental.security.jwt.JwtProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load test of an authenticated, JDBC-backed read ({@code GET /bookings?guestId=}) with the request
+ * threads on the platform pool and on virtual threads. Each of the {@code clients} client threads sends
+ * {@code requests} requests back to back; throughput and latency percentiles of both runs go to a JSON file.
+ * <p>
+ * Arguments: {@code [clients=5000] [requests per client=20] [output=target/load-test-result.json]}. Virtual threads
+ * need Java 21+; on older runtimes the second run reports {@code "virtualThreads": false}.
+ */
+public final class ThreadModelLoadTest {
+
+    private static final int WARMUP_CLIENTS = 100;
+
+    private ThreadModelLoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        final int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final File output = new File(args.length > 2 ? args[2] : "target/load-test-result.json");
+
+        final List<Map<String, Object>> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            results.add(run(virtual, clients, requests));
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private static Map<String, Object> run(final boolean virtual, final int clients, final int requests) throws Exception {
+        try (BenchmarkContext context = new BenchmarkContext(
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.max-connections=" + (clients * 2),
+                "--server.tomcat.accept-count=" + clients)) {
+            final Long ownerId = context.createUser("owner@benchmark.com");
+            final Long guestId = context.createUser("guest@benchmark.com");
+            final Long propertyId = context.createProperty(ownerId, "Load House");
+            context.seedBookings(propertyId, guestId, LocalDate.now().plusDays(1), 20);
+
+            final String token = context.getBean(JwtProvider.class).createToken("guest@benchmark.com");
+            final HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + context.port() + "/bookings?guestId=" + guestId + "&limit=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            final HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            drive(client, request, Math.min(WARMUP_CLIENTS, clients), requests);
+            final Measurement measurement = drive(client, request, clients, requests);
+
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("virtualThreadsRequested", virtual);
+            result.put("virtualThreads", virtual && Runtime.version().feature() >= 21);
+            result.put("java", Runtime.version().toString());
+            result.put("clients", clients);
+            result.put("requests", measurement.latencies().length);
+            result.put("errors", measurement.errors());
+            result.put("throughputPerSecond", measurement.latencies().length / (measurement.elapsedNanos() / 1e9));
+            result.put("p50Millis", percentile(measurement.latencies(), 0.50));
+            result.put("p99Millis", percentile(measurement.latencies(), 0.99));
+            result.put("maxMillis", percentile(measurement.latencies(), 1.0));
+            return result;
+        }
+    }
+
+    private static Measurement drive(final HttpClient client, final HttpRequest request,
+                                     final int clients, final int requests) throws InterruptedException {
+        final long[][] latencies = new long[clients][requests];
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            final long[] own = latencies[c];
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int r = 0; r < requests; r++) {
+                        final long begin = System.nanoTime();
+                        try {
+                            final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        own[r] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        final long elapsed = System.nanoTime() - begin;
+
+        final long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Measurement(all, errors.get(), elapsed);
+    }
+
+    private static double percentile(final long[] sorted, final double percentile) {
+        final int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Measurement(long[] latencies, int errors, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.code.rental.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification on the request path, with and without the verified-claims cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtVerificationBenchmark {
+
+    private JwtProvider cached;
+    private JwtProvider uncached;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final String secret = UUID.randomUUID().toString() + UUID.randomUUID();
+        cached = provider(secret, 10_000);
+        uncached = provider(secret, 0);
+        token = cached.createToken("guest@benchmark.com");
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return cached.verifyJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims verifyUncached() {
+        return uncached.verifyJwtToken(token);
+    }
+
+    private static JwtProvider provider(final String secret, final int cacheSize) {
+        final JwtProvider provider = new JwtProvider();
+        provider.setJwtSecret(secret);
+        provider.setJwtIssuer("api-property-rental");
+        provider.setJwtExpiration(3600);
+        provider.setClaimsCacheSize(cacheSize);
+        return provider;
+    }
+}
@@ -0,0 +1,107 @@
+package com.code.rental.availability;
+
+import com.code.rental.availability.lock.PropertyLockManager;
+import com.code.rental.repository.ArchivedAvailabilityRepository;
+import com.code.rental.repository.AvailabilityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves entries that ended more than {@code app.availability.archive.retention} ago from the hot
+ * {@code availability_entry} table to {@code availability_entry_archive}, so conflict checks, the availability index
+ * and the listings only ever deal with live and future stays.
+ * <p>
+ * Each batch is copied and deleted in one transaction, holding the locks of its properties like any other write, so
+ * an entry cannot be moved back into the future while it is archived. The removals are recorded in the availability
+ * index like any other delete, and the availability version of the properties whose listings lost entries is bumped.
+ */
+@Slf4j
+@Component
+public class AvailabilityArchiver {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final ArchivedAvailabilityRepository archivedAvailabilityRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityVersions availabilityVersions;
+    private final PropertyLockManager propertyLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Period retention;
+    private final int batchSize;
+
+    public AvailabilityArchiver(final AvailabilityRepository availabilityRepository,
+                                final ArchivedAvailabilityRepository archivedAvailabilityRepository,
+                                final AvailabilityIndex availabilityIndex,
+                                final AvailabilityVersions availabilityVersions,
+                                final PropertyLockManager propertyLockManager,
+                                final TransactionTemplate transactionTemplate,
+                                @Value("${app.availability.archive.retention:30d}") final Period retention,
+                                @Value("${app.availability.archive.batch-size:1000}") final int batchSize) {
+        this.availabilityRepository = availabilityRepository;
+        this.archivedAvailabilityRepository = archivedAvailabilityRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.availabilityVersions = availabilityVersions;
+        this.propertyLockManager = propertyLockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.archive.interval:PT1H}")
+    public void archivePast() {
+        final LocalDate cutoff = LocalDate.now().minus(retention);
+        int archived = 0;
+        int batch;
+        do {
+            batch = archive(cutoff);
+            archived += batch;
+        } while (batch == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} availability entries that ended before {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Archives one batch of the entries that ended before the cutoff.
+     *
+     * @return the number of entries archived
+     */
+    public int archive(final LocalDate cutoff) {
+        final Integer archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+        return archived == null ? 0 : archived;
+    }
+
+    private int archiveBatch(final LocalDate cutoff) {
+        final List<AvailabilityEntryKey> picked = availabilityRepository.findKeysEndedBefore(cutoff, Limit.of(batchSize));
+        if (picked.isEmpty()) {
+            return 0;
+        }
+
+        propertyLockManager.lockAll(picked.stream().map(AvailabilityEntryKey::propertyId).collect(Collectors.toSet()));
+        // an update may have moved an entry into the future before the lock was taken
+        final List<AvailabilityEntryKey> keys = availabilityRepository.findKeysByIdInEndedBefore(
+                picked.stream().map(AvailabilityEntryKey::id).toList(), cutoff);
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        final List<Long> ids = keys.stream().map(AvailabilityEntryKey::id).toList();
+        final int archived = archivedAvailabilityRepository.archiveAllByIdInEndedBefore(ids, cutoff);
+        final int deleted = availabilityRepository.deleteAllByIdInEndedBefore(ids, cutoff);
+        if (archived != keys.size() || deleted != keys.size()) {
+            throw new IllegalStateException("Availability entries changed while locked for archiving, archived "
+                    + archived + " and deleted " + deleted + " of " + keys.size());
+        }
+        keys.forEach(key -> availabilityIndex.recordRemoved(key.id(), key.propertyId()));
+        keys.stream().map(AvailabilityEntryKey::propertyId).distinct().forEach(availabilityVersions::transactionVersion);
+        return keys.size();
+    }
+}
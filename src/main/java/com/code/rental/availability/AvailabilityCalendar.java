@@ -0,0 +1,88 @@
+package com.code.rental.availability;
+
+import java.util.BitSet;
+
+/**
+ * One bit per day over a rolling horizon of a bit more than three years, starting on the day it was built.
+ * <p>
+ * 18 words (144 bytes) per property, so a million properties fit in well under 200 MB. Range checks and sets work a
+ * word at a time, a "free on these dates?" check touches at most a handful of words.
+ */
+final class AvailabilityCalendar {
+
+    static final int HORIZON_WORDS = 18;
+    static final int HORIZON_DAYS = HORIZON_WORDS * Long.SIZE;
+
+    private final long originDay;
+    private final long[] words = new long[HORIZON_WORDS];
+
+    AvailabilityCalendar(final long originDay) {
+        this.originDay = originDay;
+    }
+
+    boolean covers(final long startDay, final long endDay) {
+        return startDay >= originDay && endDay < originDay + HORIZON_DAYS;
+    }
+
+    /**
+     * Marks the days of the range that fall inside the horizon as busy.
+     */
+    void set(final long startDay, final long endDay) {
+        final long from = Math.max(startDay, originDay) - originDay;
+        final long to = Math.min(endDay, originDay + HORIZON_DAYS - 1) - originDay;
+        if (from > to) {
+            return;
+        }
+        final int firstWord = (int) (from >>> 6);
+        final int lastWord = (int) (to >>> 6);
+        for (int word = firstWord; word <= lastWord; word++) {
+            words[word] |= mask(word, firstWord, lastWord, from, to);
+        }
+    }
+
+    /**
+     * Whether any day of the range is busy. The range must be {@link #covers(long, long) covered} by the horizon.
+     */
+    boolean anyBusy(final long startDay, final long endDay) {
+        final long from = startDay - originDay;
+        final long to = endDay - originDay;
+        final int firstWord = (int) (from >>> 6);
+        final int lastWord = (int) (to >>> 6);
+        for (int word = firstWord; word <= lastWord; word++) {
+            if ((words[word] & mask(word, firstWord, lastWord, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busy days of the range, bit {@code i} standing for {@code startDay + i}. The range must be covered.
+     */
+    BitSet busyDays(final long startDay, final long endDay) {
+        final BitSet busy = new BitSet((int) (endDay - startDay + 1));
+        final long offset = startDay - originDay;
+        for (int day = (int) offset; day <= endDay - originDay; day++) {
+            // skip empty words in one go
+            if (words[day >>> 6] == 0) {
+                day |= 63;
+                continue;
+            }
+            if ((words[day >>> 6] & (1L << day)) != 0) {
+                busy.set((int) (day - offset));
+            }
+        }
+        return busy;
+    }
+
+    private static long mask(final int word, final int firstWord, final int lastWord, final long from, final long to) {
+        long mask = -1L;
+        if (word == firstWord) {
+            mask &= -1L << from;
+        }
+        if (word == lastWord) {
+            mask &= -1L >>> (63 - (to & 63));
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,27 @@
+package com.code.rental.availability;
+
+import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.domain.enums.BookingStatusEnum;
+
+import java.time.LocalDate;
+
+/**
+ * A pending change to the index, recorded during a transaction and applied once it commits.
+ * Inactive changes (canceled or deleted entries) remove the range from the index.
+ */
+record AvailabilityChange(Long id, Long propertyId, LocalDate startDate, LocalDate endDate, Long version, boolean active) {
+
+    static AvailabilityChange saved(final AvailabilityEntry entry) {
+        return new AvailabilityChange(
+                entry.getId(),
+                entry.getProperty().getId(),
+                entry.getStartDate(),
+                entry.getEndDate(),
+                entry.getVersion(),
+                entry.getStatus() == BookingStatusEnum.ACTIVE);
+    }
+
+    static AvailabilityChange removed(final Long id, final Long propertyId) {
+        return new AvailabilityChange(id, propertyId, null, null, null, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.code.rental.availability;
+
+/**
+ * ID of an {@link com.code.rental.domain.AvailabilityEntry} with the property it belongs to.
+ */
+public record AvailabilityEntryKey(Long id, Long propertyId) {
+}
@@ -0,0 +1,32 @@
+package com.code.rental.availability;
+
+import com.code.rental.domain.AvailabilityEntry;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link AvailabilityIndex} in sync with every {@link AvailabilityEntry} written through JPA.
+ * Writes that bypass the persistence context (native inserts) must notify the index themselves.
+ */
+@RequiredArgsConstructor
+@Component
+public class AvailabilityEntryListener {
+
+    // resolved lazily, the listener is created while the EntityManagerFactory the index depends on is being built
+    private final ObjectProvider<AvailabilityIndex> availabilityIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(final AvailabilityEntry entry) {
+        availabilityIndex.getObject().recordSaved(entry);
+    }
+
+    @PostRemove
+    public void onRemoved(final AvailabilityEntry entry) {
+        availabilityIndex.getObject().recordRemoved(entry);
+    }
+}
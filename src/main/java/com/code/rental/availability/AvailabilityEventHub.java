@@ -0,0 +1,194 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed availability events out to the Server-Sent Events subscribers of each property.
+ * <p>
+ * Subscribers are async requests, so an idle one holds no thread, only its connection and a small buffer. Publishing
+ * never blocks: the event is appended to the bounded buffer of every subscriber of the property, dropping the oldest
+ * buffered event when it is full, and a drain of that subscriber is handed to a small pool of sender threads. At most
+ * one drain per subscriber is queued or running, so events reach each subscriber in publication order and a slow
+ * client only ever costs its own buffer.
+ * <p>
+ * Every stream keeps a connection open, so a node accepts at most {@code app.availability.stream.max-subscribers} of
+ * them and answers further subscriptions with 503; the limit stays below the connector's connection limit so regular
+ * requests still get through. Published metrics: {@code availability.stream.subscribers} and
+ * {@code availability.stream.dropped}.
+ */
+@Component
+public class AvailabilityEventHub implements DisposableBean {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter dropped;
+
+    public AvailabilityEventHub(@Value("${app.availability.stream.max-subscribers:4096}") final int maxSubscribers,
+                                @Value("${app.availability.stream.sender-threads:2}") final int senderThreads,
+                                @Value("${app.availability.stream.buffer-size:256}") final int bufferSize,
+                                @Value("${app.availability.stream.timeout:30m}") final Duration timeout,
+                                final MeterRegistry meterRegistry) {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("availability-stream-");
+        threadFactory.setDaemon(true);
+        this.senders = Executors.newFixedThreadPool(senderThreads, threadFactory);
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.dropped = Counter.builder("availability.stream.dropped")
+                .description("Availability events dropped because a subscriber's buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("availability.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open availability event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the property's events, starting with a {@code ready} event carrying its availability version.
+     * Changes committed before the subscription are not replayed: a client (re)loads the listings after {@code ready},
+     * conditionally on the version it last saw. The stream is completed after the configured timeout; clients
+     * reconnect as usual with SSE.
+     *
+     * @throws ServiceUnavailableException if this node already serves the maximum number of streams
+     */
+    public SseEmitter subscribe(final Long propertyId, final long availabilityVersion) {
+        return subscribe(propertyId, availabilityVersion, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(final Long propertyId, final long availabilityVersion, final SseEmitter emitter) {
+        // the slot is taken before the stream opens and given back by remove() once the subscriber leaves
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many availability streams, try again later", RETRY_AFTER);
+        }
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(availabilityVersion));
+        } catch (IOException e) {
+            subscriberCount.decrementAndGet();
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        final Subscriber subscriber = new Subscriber(propertyId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        // adding and removing inside compute keeps a subscriber from joining a set that is being dropped as empty
+        subscribers.compute(propertyId, (id, current) -> {
+            final Set<Subscriber> propertySubscribers = current == null ? ConcurrentHashMap.newKeySet() : current;
+            propertySubscribers.add(subscriber);
+            return propertySubscribers;
+        });
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onAvailabilityEvent(final AvailabilityEventDTO event) {
+        publish(event);
+    }
+
+    void publish(final AvailabilityEventDTO event) {
+        final Set<Subscriber> propertySubscribers = subscribers.get(event.getPropertyId());
+        if (propertySubscribers != null) {
+            propertySubscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    private void remove(final Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.propertyId, (id, current) -> {
+            if (current.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final Long propertyId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<AvailabilityEventDTO> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(final Long propertyId, final SseEmitter emitter) {
+            this.propertyId = propertyId;
+            this.emitter = emitter;
+        }
+
+        void offer(final AvailabilityEventDTO event) {
+            synchronized (buffer) {
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(event);
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final AvailabilityEventDTO event;
+                synchronized (buffer) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        // cleared under the buffer lock, an event offered after this schedules a new drain
+                        draining.set(false);
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(event.getType().name().toLowerCase())
+                            .data(event, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away or the stream already completed
+                    remove(this);
+                    synchronized (buffer) {
+                        buffer.clear();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.domain.OutboxEvent;
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import com.code.rental.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Publishes availability changes as application events. Listeners that must only see committed changes, such as the
+ * {@link AvailabilityEventHub}, receive them through {@code @TransactionalEventListener}.
+ * <p>
+ * Each change is also written to the outbox in the caller's transaction, tagged with the availability version that
+ * transaction commits for the property, which publishing bumps, for the {@link com.code.rental.outbox.OutboxRelay} to deliver at-least-once.
+ */
+@RequiredArgsConstructor
+@Component
+public class AvailabilityEventPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxEventRepository outboxEventRepository;
+    private final AvailabilityVersions availabilityVersions;
+
+    public void publish(final AvailabilityEventTypeEnum type, final AvailabilityEntry entry) {
+        publish(type, entry.getId(), entry.getProperty().getId(), entry.getType(), entry.getStartDate(), entry.getEndDate());
+    }
+
+    public void publish(final AvailabilityEventTypeEnum type, final Long id, final Long propertyId,
+                        final EntryTypeEnum entryType, final LocalDate startDate, final LocalDate endDate) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .propertyId(propertyId)
+                .propertyVersion(availabilityVersions.transactionVersion(propertyId))
+                .type(type)
+                .entryId(id)
+                .entryType(entryType)
+                .startDate(startDate)
+                .endDate(endDate)
+                .createdAt(Instant.now())
+                .build());
+        eventPublisher.publishEvent(AvailabilityEventDTO.builder()
+                .type(type)
+                .id(id)
+                .propertyId(propertyId)
+                .entryType(entryType)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build());
+    }
+}
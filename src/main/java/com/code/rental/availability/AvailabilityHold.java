@@ -0,0 +1,26 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Dates a guest keeps off the market for a short while before confirming the booking, with the booking details to
+ * confirm it with. Only ever held in memory.
+ */
+public record AvailabilityHold(UUID id, Long guestId, BookingRequestDTO booking, Instant expiresAt) {
+
+    public Long propertyId() {
+        return booking.getPropertyId();
+    }
+
+    boolean overlaps(final LocalDate startDate, final LocalDate endDate) {
+        return !booking.getStartDate().isAfter(endDate) && !booking.getEndDate().isBefore(startDate);
+    }
+
+    boolean isExpired(final Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
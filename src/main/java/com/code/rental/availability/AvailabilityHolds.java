@@ -0,0 +1,218 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded in-memory table of {@link AvailabilityHold}s, consulted by the conflict checks of the
+ * {@link AvailabilityIndex} so held dates can be neither booked nor blocked until the hold is confirmed, released or
+ * expires.
+ * <p>
+ * Holds are placed and confirmed under the property lock, like any other availability change. An expired hold stops
+ * counting as soon as its deadline passes; a hashed timer wheel, advanced every {@code app.availability.holds.tick},
+ * then drops it from memory. Holds never reach the database: confirming one writes a regular booking.
+ * <p>
+ * The table is local to the node, with {@code app.availability.lock-mode=database} a hold only guards the bookings
+ * made through the same node.
+ */
+@Component
+public class AvailabilityHolds {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final Map<UUID, AvailabilityHold> holds = new ConcurrentHashMap<>();
+    // immutable lists, replaced on every change so the conflict checks read them without locking
+    private final Map<Long, List<AvailabilityHold>> holdsByProperty = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> holdCountByGuest = new ConcurrentHashMap<>();
+    private final Queue<AvailabilityHold>[] wheel;
+    private final Duration ttl;
+    private final long tickMillis;
+    private final int maxHolds;
+    private final int maxHoldsPerGuest;
+    private final Clock clock;
+    private final Counter expired;
+    private long currentTick;
+
+    @Autowired
+    public AvailabilityHolds(@Value("${app.availability.holds.ttl:10m}") final Duration ttl,
+                             @Value("${app.availability.holds.tick:PT1S}") final Duration tick,
+                             @Value("${app.availability.holds.max-holds:100000}") final int maxHolds,
+                             @Value("${app.availability.holds.max-holds-per-guest:5}") final int maxHoldsPerGuest,
+                             final MeterRegistry meterRegistry) {
+        this(ttl, tick, maxHolds, maxHoldsPerGuest, meterRegistry, Clock.systemUTC());
+    }
+
+    @SuppressWarnings("unchecked")
+    AvailabilityHolds(final Duration ttl, final Duration tick, final int maxHolds, final int maxHoldsPerGuest,
+                      final MeterRegistry meterRegistry, final Clock clock) {
+        this.ttl = ttl;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.maxHolds = maxHolds;
+        this.maxHoldsPerGuest = maxHoldsPerGuest;
+        this.clock = clock;
+        this.wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = tickOf(clock.instant());
+
+        Gauge.builder("availability.holds.active", holds, Map::size)
+                .description("Holds placed and neither confirmed, released nor dropped after expiring")
+                .register(meterRegistry);
+        this.expired = Counter.builder("availability.holds.expired")
+                .description("Holds dropped because they were not confirmed in time")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Places a hold on the booking's dates for {@code app.availability.holds.ttl}. The caller holds the property lock
+     * and has checked the dates are free.
+     */
+    public AvailabilityHold hold(final Long guestId, final BookingRequestDTO booking) {
+        if (holds.size() >= maxHolds) {
+            throw new ServiceUnavailableException("Too many dates on hold, try again later", ttl);
+        }
+        final Instant now = clock.instant();
+        final AvailabilityHold hold = new AvailabilityHold(UUID.randomUUID(), guestId, booking, now.plus(ttl));
+        holdCountByGuest.compute(guestId, (id, count) -> {
+            final int holdCount = count == null ? 0 : count;
+            if (holdCount >= maxHoldsPerGuest) {
+                throw new ConflictException(ConflictReasonEnum.HOLD_LIMIT,
+                        "You can't hold more than " + maxHoldsPerGuest + " date ranges at once");
+            }
+            return holdCount + 1;
+        });
+        add(hold);
+        return hold;
+    }
+
+    public Optional<AvailabilityHold> get(final UUID id) {
+        return Optional.ofNullable(holds.get(id)).filter(hold -> !hold.isExpired(clock.instant()));
+    }
+
+    /**
+     * Removes a hold to turn it into a booking. Inside a transaction the hold is put back if the transaction rolls
+     * back before it expires.
+     *
+     * @return the hold, or empty if it was released or has expired meanwhile
+     */
+    public Optional<AvailabilityHold> take(final UUID id) {
+        final Optional<AvailabilityHold> taken = get(id).filter(this::remove);
+        if (taken.isPresent() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    // before the property lock is released
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    if (status != STATUS_COMMITTED && !taken.get().isExpired(clock.instant())) {
+                        holdCountByGuest.merge(taken.get().guestId(), 1, Integer::sum);
+                        add(taken.get());
+                    }
+                }
+            });
+        }
+        return taken;
+    }
+
+    public boolean release(final UUID id) {
+        final AvailabilityHold hold = holds.get(id);
+        return hold != null && remove(hold);
+    }
+
+    public boolean overlaps(final Long propertyId, final LocalDate startDate, final LocalDate endDate) {
+        final List<AvailabilityHold> propertyHolds = holdsByProperty.get(propertyId);
+        if (propertyHolds == null) {
+            return false;
+        }
+        final Instant now = clock.instant();
+        return propertyHolds.stream().anyMatch(hold -> !hold.isExpired(now) && hold.overlaps(startDate, endDate));
+    }
+
+    /**
+     * Moves the timer wheel up to now, dropping the holds whose deadline has passed.
+     */
+    @Scheduled(fixedRateString = "${app.availability.holds.tick:PT1S}")
+    public synchronized void expire() {
+        final Instant now = clock.instant();
+        final long nowTick = tickOf(now);
+        // a gap of a full turn visits every slot once
+        final long firstTick = Math.max(currentTick + 1, nowTick - WHEEL_SIZE + 1);
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            wheel[slotOf(tick)].removeIf(hold -> {
+                if (!hold.isExpired(now)) {
+                    return false;
+                }
+                if (remove(hold)) {
+                    expired.increment();
+                }
+                return true;
+            });
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    private void add(final AvailabilityHold hold) {
+        holds.put(hold.id(), hold);
+        holdsByProperty.compute(hold.propertyId(), (id, propertyHolds) -> {
+            final List<AvailabilityHold> updated = propertyHolds == null ? new ArrayList<>() : new ArrayList<>(propertyHolds);
+            updated.add(hold);
+            return List.copyOf(updated);
+        });
+        wheel[deadlineSlot(hold)].add(hold);
+    }
+
+    private boolean remove(final AvailabilityHold hold) {
+        if (!holds.remove(hold.id(), hold)) {
+            return false;
+        }
+        holdsByProperty.computeIfPresent(hold.propertyId(), (id, propertyHolds) -> {
+            final List<AvailabilityHold> updated = propertyHolds.stream().filter(other -> other != hold).toList();
+            return updated.isEmpty() ? null : updated;
+        });
+        holdCountByGuest.computeIfPresent(hold.guestId(), (id, count) -> count > 1 ? count - 1 : null);
+        wheel[deadlineSlot(hold)].remove(hold);
+        return true;
+    }
+
+    private long tickOf(final Instant instant) {
+        return instant.toEpochMilli() / tickMillis;
+    }
+
+    // the first tick starting after the deadline, a hold living longer than a turn is skipped until its last turn
+    private int deadlineSlot(final AvailabilityHold hold) {
+        return slotOf(tickOf(hold.expiresAt()) + 1);
+    }
+
+    private static int slotOf(final long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SIZE);
+    }
+}
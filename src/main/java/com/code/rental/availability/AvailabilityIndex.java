@@ -0,0 +1,174 @@
+package com.code.rental.availability;
+
+import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.repository.AvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Write-through, per-property index of ACTIVE availability entries.
+ * <p>
+ * A property is loaded from the database the first time it is checked, outside of the map so a slow load only holds
+ * the callers checking that property; they wait for the one load in flight. Changes recorded during a transaction are
+ * buffered and applied only after the transaction commits; on rollback the touched properties are evicted so they are
+ * reloaded from the database on the next check. The database constraints remain the final backstop.
+ * <p>
+ * The index must be consulted before the current transaction writes to the property, otherwise a first load could
+ * pick up the transaction's own uncommitted rows (they would be evicted again if it rolls back).
+ * <p>
+ * The index is a pure cache: it never writes to the database, bumping the availability version of a changed property
+ * is up to the writer, see {@link AvailabilityVersions}.
+ * <p>
+ * The conflict checks also count the dates on hold in {@link AvailabilityHolds}; the busy days do not.
+ */
+@RequiredArgsConstructor
+@Component
+public class AvailabilityIndex {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityHolds availabilityHolds;
+    private final Map<Long, CompletableFuture<AvailabilityIntervals>> intervals = new ConcurrentHashMap<>();
+
+    public boolean hasConflict(final Long propertyId, final LocalDate startDate, final LocalDate endDate) {
+        return intervalsOf(propertyId).overlaps(startDate, endDate)
+                || availabilityHolds.overlaps(propertyId, startDate, endDate);
+    }
+
+    public boolean hasConflictExcluding(final Long propertyId, final LocalDate startDate, final LocalDate endDate,
+                                        final Long excludedId) {
+        return intervalsOf(propertyId).overlapsExcluding(startDate, endDate, excludedId)
+                || availabilityHolds.overlaps(propertyId, startDate, endDate);
+    }
+
+    /**
+     * Like {@link #hasConflictExcluding(Long, LocalDate, LocalDate, Long)}, ignoring every entry the predicate accepts.
+     */
+    public boolean hasConflictExcluding(final Long propertyId, final LocalDate startDate, final LocalDate endDate,
+                                        final LongPredicate excluded) {
+        return intervalsOf(propertyId).overlapsExcluding(startDate, endDate, excluded)
+                || availabilityHolds.overlaps(propertyId, startDate, endDate);
+    }
+
+    /**
+     * Busy days of the property between the two dates, bit {@code i} standing for {@code from.plusDays(i)}.
+     */
+    public BitSet busyDays(final Long propertyId, final LocalDate from, final LocalDate to) {
+        return intervalsOf(propertyId).busyDays(from, to);
+    }
+
+    public void recordSaved(final AvailabilityEntry entry) {
+        record(AvailabilityChange.saved(entry));
+    }
+
+    public void recordInserted(final Long id, final Long propertyId, final LocalDate startDate, final LocalDate endDate) {
+        record(new AvailabilityChange(id, propertyId, startDate, endDate, 0L, true));
+    }
+
+    public void recordRemoved(final AvailabilityEntry entry) {
+        recordRemoved(entry.getId(), entry.getProperty().getId());
+    }
+
+    public void recordRemoved(final Long id, final Long propertyId) {
+        record(AvailabilityChange.removed(id, propertyId));
+    }
+
+    public void evict(final Long propertyId) {
+        intervals.remove(propertyId);
+    }
+
+    AvailabilityIntervals intervalsOf(final Long propertyId) {
+        final CompletableFuture<AvailabilityIntervals> cached = intervals.get(propertyId);
+        if (cached != null) {
+            return await(propertyId, cached);
+        }
+
+        final CompletableFuture<AvailabilityIntervals> load = new CompletableFuture<>();
+        final CompletableFuture<AvailabilityIntervals> loading = intervals.putIfAbsent(propertyId, load);
+        if (loading != null) {
+            return await(propertyId, loading);
+        }
+        try {
+            load.complete(AvailabilityIntervals.of(availabilityRepository.findActiveRangesByPropertyId(propertyId)));
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+        }
+        return await(propertyId, load);
+    }
+
+    private AvailabilityIntervals await(final Long propertyId, final CompletableFuture<AvailabilityIntervals> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            // the next check loads the property again
+            intervals.remove(propertyId, entry);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void record(final AvailabilityChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(change));
+            return;
+        }
+        pendingChanges().changes.add(change);
+    }
+
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        final PendingChanges pending = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void apply(final List<AvailabilityChange> changes) {
+        final Map<Long, List<AvailabilityChange>> byProperty = new LinkedHashMap<>();
+        changes.forEach(change -> byProperty.computeIfAbsent(change.propertyId(), id -> new ArrayList<>()).add(change));
+        // properties that are not loaded yet will read the committed state on first access; a load still in flight may
+        // have read the state before this commit, the changes are applied on top of it once it completes, so they are
+        // never lost
+        byProperty.forEach((propertyId, propertyChanges) -> intervals.computeIfPresent(propertyId,
+                (id, current) -> current.thenApply(loaded -> loaded.apply(propertyChanges))));
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<AvailabilityChange> changes = new ArrayList<>();
+
+        private AvailabilityIndex owner() {
+            return AvailabilityIndex.this;
+        }
+
+        @Override
+        public int getOrder() {
+            // apply the changes before the property locks taken in the same transaction are released
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            if (status == STATUS_COMMITTED) {
+                apply(changes);
+            } else {
+                changes.forEach(change -> evict(change.propertyId()));
+            }
+        }
+    }
+}
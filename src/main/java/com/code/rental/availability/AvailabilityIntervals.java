@@ -0,0 +1,177 @@
+package com.code.rental.availability;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable snapshot of the ACTIVE date ranges of a single property.
+ * <p>
+ * Ranges are stored as {@code startEpochDay << 32 | endEpochDay} in a sorted {@code long[]}, together with a prefix
+ * maximum of the end days. An overlap check is a binary search for the last range starting on or before the requested
+ * end date followed by a single comparison against the prefix maximum, so it runs in O(log n) without allocating.
+ * Writes copy the arrays, which is fine because reads vastly outnumber writes.
+ * <p>
+ * Each snapshot also carries an {@link AvailabilityCalendar} bitset for the next three years, which answers checks
+ * inside that horizon with a few word operations. Dates outside of it fall back to the sorted ranges.
+ */
+final class AvailabilityIntervals {
+
+    static final AvailabilityIntervals EMPTY = new AvailabilityIntervals(new long[0], new long[0], new long[0]);
+
+    private final long[] ranges;
+    private final long[] ids;
+    private final long[] versions;
+    private final int[] maxEnds;
+    private final AvailabilityCalendar calendar;
+
+    private AvailabilityIntervals(final long[] ranges, final long[] ids, final long[] versions) {
+        this.ranges = ranges;
+        this.ids = ids;
+        this.versions = versions;
+        this.maxEnds = new int[ranges.length];
+        this.calendar = new AvailabilityCalendar(LocalDate.now().toEpochDay());
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < ranges.length; i++) {
+            max = Math.max(max, endOf(ranges[i]));
+            maxEnds[i] = max;
+            calendar.set(startOf(ranges[i]), endOf(ranges[i]));
+        }
+    }
+
+    static AvailabilityIntervals of(final List<AvailabilityRange> ranges) {
+        final Map<Long, Slot> slots = new HashMap<>(ranges.size() * 2);
+        for (AvailabilityRange range : ranges) {
+            slots.put(range.id(), new Slot(range.id(), pack(range.startDate(), range.endDate()), versionOf(range.version())));
+        }
+        return build(slots.values());
+    }
+
+    boolean overlaps(final LocalDate startDate, final LocalDate endDate) {
+        final long start = startDate.toEpochDay();
+        final long end = endDate.toEpochDay();
+        if (calendar.covers(start, end)) {
+            return calendar.anyBusy(start, end);
+        }
+        final int last = lastStartingOnOrBefore((int) end);
+        return last >= 0 && maxEnds[last] >= start;
+    }
+
+    /**
+     * Busy days between the two dates, bit {@code i} standing for {@code from.plusDays(i)}.
+     */
+    BitSet busyDays(final LocalDate from, final LocalDate to) {
+        final long start = from.toEpochDay();
+        final long end = to.toEpochDay();
+        if (calendar.covers(start, end)) {
+            return calendar.busyDays(start, end);
+        }
+
+        final BitSet busy = new BitSet((int) (end - start + 1));
+        for (int i = lastStartingOnOrBefore((int) end); i >= 0 && maxEnds[i] >= start; i--) {
+            if (endOf(ranges[i]) >= start) {
+                busy.set((int) (Math.max(startOf(ranges[i]), start) - start), (int) (Math.min(endOf(ranges[i]), end) - start) + 1);
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Same as {@link #overlaps(LocalDate, LocalDate)} but ignoring the entry being updated. Walks back from the last
+     * candidate only while the prefix maximum still reaches the start date, which is a handful of ranges in practice.
+     */
+    boolean overlapsExcluding(final LocalDate startDate, final LocalDate endDate, final Long excludedId) {
+        return overlapsExcluding(startDate, endDate, id -> id == excludedId);
+    }
+
+    boolean overlapsExcluding(final LocalDate startDate, final LocalDate endDate, final LongPredicate excluded) {
+        final int start = (int) startDate.toEpochDay();
+        for (int i = lastStartingOnOrBefore((int) endDate.toEpochDay()); i >= 0 && maxEnds[i] >= start; i--) {
+            if (endOf(ranges[i]) >= start && !excluded.test(ids[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int lastStartingOnOrBefore(final int day) {
+        int low = 0;
+        int high = ranges.length - 1;
+        int last = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (startOf(ranges[mid]) <= day) {
+                last = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return last;
+    }
+
+    int size() {
+        return ranges.length;
+    }
+
+    AvailabilityIntervals apply(final Collection<AvailabilityChange> changes) {
+        final Map<Long, Slot> slots = new HashMap<>((ranges.length + changes.size()) * 2);
+        for (int i = 0; i < ranges.length; i++) {
+            slots.put(ids[i], new Slot(ids[i], ranges[i], versions[i]));
+        }
+
+        for (AvailabilityChange change : changes) {
+            if (!change.active()) {
+                slots.remove(change.id());
+                continue;
+            }
+            final Slot current = slots.get(change.id());
+            final long version = versionOf(change.version());
+            // after-commit callbacks of different transactions may run out of order, never go back in time
+            if (current == null || current.version() <= version) {
+                slots.put(change.id(), new Slot(change.id(), pack(change.startDate(), change.endDate()), version));
+            }
+        }
+        return build(slots.values());
+    }
+
+    private static AvailabilityIntervals build(final Collection<Slot> slots) {
+        final List<Slot> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparingLong(Slot::range));
+
+        final long[] ranges = new long[sorted.size()];
+        final long[] ids = new long[sorted.size()];
+        final long[] versions = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            ranges[i] = sorted.get(i).range();
+            ids[i] = sorted.get(i).id();
+            versions[i] = sorted.get(i).version();
+        }
+        return new AvailabilityIntervals(ranges, ids, versions);
+    }
+
+    private static long pack(final LocalDate startDate, final LocalDate endDate) {
+        return (startDate.toEpochDay() << 32) | (endDate.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    private static int startOf(final long range) {
+        return (int) (range >> 32);
+    }
+
+    private static int endOf(final long range) {
+        return (int) range;
+    }
+
+    private static long versionOf(final Long version) {
+        return version == null ? 0L : version;
+    }
+
+    private record Slot(long id, long range, long version) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.code.rental.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Minimal projection of an ACTIVE {@link com.code.rental.domain.AvailabilityEntry} used to build the in-memory index.
+ */
+public record AvailabilityRange(Long id, LocalDate startDate, LocalDate endDate, Long version) {
+}
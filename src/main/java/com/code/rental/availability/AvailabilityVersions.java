@@ -0,0 +1,86 @@
+package com.code.rental.availability;
+
+import com.code.rental.repository.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Availability versions of the properties, the source of the ETags of their listings and of the ordering of their
+ * outbox events.
+ * <p>
+ * The version of a property is bumped in the database once per transaction changing its availability, and in that
+ * same transaction, so it changes exactly when a committed change becomes visible. Writers bump it when they publish
+ * the change through the {@link AvailabilityEventPublisher}, or directly when the change is not published, like the
+ * {@link AvailabilityArchiver} does.
+ */
+@RequiredArgsConstructor
+@Component
+public class AvailabilityVersions {
+
+    private final PropertyRepository propertyRepository;
+
+    /**
+     * Availability version the current transaction commits for the property, bumping it now if the transaction hasn't
+     * changed the property yet. Transactions changing the same property get increasing versions in commit order.
+     */
+    public long transactionVersion(final Long propertyId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return increment(propertyId);
+        }
+        return transactionVersions().versions.computeIfAbsent(propertyId, this::increment);
+    }
+
+    /**
+     * Availability version the current transaction commits for the property, if it has changed the property.
+     */
+    public Optional<Long> pendingVersion(final Long propertyId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.empty();
+        }
+        final TransactionVersions versions = findTransactionVersions();
+        return versions == null ? Optional.empty() : Optional.ofNullable(versions.versions.get(propertyId));
+    }
+
+    private long increment(final Long propertyId) {
+        final Long version = propertyRepository.incrementAvailabilityVersion(propertyId);
+        if (version == null) {
+            throw new IllegalStateException("Property not found with ID " + propertyId);
+        }
+        return version;
+    }
+
+    private TransactionVersions transactionVersions() {
+        final TransactionVersions existing = findTransactionVersions();
+        if (existing != null) {
+            return existing;
+        }
+        final TransactionVersions versions = new TransactionVersions();
+        TransactionSynchronizationManager.registerSynchronization(versions);
+        return versions;
+    }
+
+    private TransactionVersions findTransactionVersions() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TransactionVersions versions && versions.owner() == this) {
+                return versions;
+            }
+        }
+        return null;
+    }
+
+    // the synchronization only scopes the versions to the transaction, they are dropped with it
+    private final class TransactionVersions implements TransactionSynchronization {
+
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        private AvailabilityVersions owner() {
+            return AvailabilityVersions.this;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.code.rental.availability.lock;
+
+import com.code.rental.availability.AvailabilityIndex;
+import com.code.rental.availability.AvailabilityVersions;
+import com.code.rental.repository.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lock manager for multi-node deployments, backed by a {@code SELECT ... FOR UPDATE} on the property row.
+ * <p>
+ * Other nodes write to the same properties, so the local availability index may be behind. The lock also reads the
+ * availability version of the property, and the index is evicted only when that version differs from the one this
+ * node last indexed; the following conflict check then reloads the committed state from the database. Writes that
+ * don't change the property, and writes of this node, keep the indexed ranges.
+ */
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.availability.lock-mode", havingValue = "database")
+@Component
+public class DatabasePropertyLockManager implements PropertyLockManager {
+
+    private final PropertyRepository propertyRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityVersions availabilityVersions;
+    private final Map<Long, Long> indexedVersions = new ConcurrentHashMap<>();
+
+    @Override
+    public void lock(final Long propertyId) {
+        checkTransaction();
+
+        // a missing property is reported by the caller, the lock is simply a no-op then
+        propertyRepository.lockAvailabilityVersionById(propertyId)
+                .ifPresent(version -> checkIndexed(propertyId, version));
+    }
+
+    @Override
+    public void lockAll(final Collection<Long> propertyIds) {
+        checkTransaction();
+        if (propertyIds.isEmpty()) {
+            return;
+        }
+
+        // one statement, rows locked in ID order
+        propertyRepository.lockAllByIdIn(propertyIds)
+                .forEach(property -> checkIndexed(property.getId(), property.getAvailabilityVersion()));
+    }
+
+    private static void checkTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Property locks can only be taken inside a transaction");
+        }
+    }
+
+    private void checkIndexed(final Long propertyId, final long lockedVersion) {
+        final Long indexedVersion = indexedVersions.get(propertyId);
+        if (indexedVersion == null || indexedVersion != lockedVersion) {
+            availabilityIndex.evict(propertyId);
+        }
+
+        // ordered after the index applies the changes of the transaction, so a version is only recorded once the
+        // ranges it stands for are in the index
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long committedVersion = lockedVersion;
+
+            @Override
+            public void beforeCommit(final boolean readOnly) {
+                committedVersion = availabilityVersions.pendingVersion(propertyId).orElse(lockedVersion);
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                // the row stayed locked, after a rollback the database is still at the locked version
+                final long version = status == STATUS_COMMITTED ? committedVersion : lockedVersion;
+                indexedVersions.merge(propertyId, version, Math::max);
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package com.code.rental.availability.lock;
+
+import java.util.Collection;
+
+/**
+ * Serialises writes to the availability of a property.
+ * <p>
+ * Writes to different properties run in parallel. The lock is held until the current transaction completes, so the
+ * next writer of the same property always sees the committed result of the previous one.
+ */
+public interface PropertyLockManager {
+
+    /**
+     * Locks the property for the remainder of the current transaction.
+     *
+     * @throws IllegalStateException if there is no active transaction
+     */
+    void lock(Long propertyId);
+
+    /**
+     * Locks every property for the remainder of the current transaction, in an order defined by the lock manager, so
+     * two transactions locking overlapping sets of properties cannot deadlock. Properties a transaction locks one by
+     * one before calling this are outside that order.
+     *
+     * @throws IllegalStateException if there is no active transaction
+     */
+    void lockAll(Collection<Long> propertyIds);
+}
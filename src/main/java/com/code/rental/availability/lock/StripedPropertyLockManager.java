@@ -0,0 +1,86 @@
+package com.code.rental.availability.lock;
+
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM lock manager for single-node deployments. Property IDs are hashed onto a fixed set of lock stripes, so memory
+ * stays bounded no matter how many properties there are; unrelated properties sharing a stripe just wait a bit longer.
+ */
+@ConditionalOnProperty(name = "app.availability.lock-mode", havingValue = "local", matchIfMissing = true)
+@Component
+public class StripedPropertyLockManager implements PropertyLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public StripedPropertyLockManager(@Value("${app.availability.lock-stripes:1024}") final int stripes,
+                                      @Value("${app.availability.lock-timeout-ms:10000}") final long timeoutMillis) {
+        // round up to a power of two so the stripe can be picked with a mask
+        final int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void lock(final Long propertyId) {
+        checkTransaction();
+        lockStripe(stripeIndexFor(propertyId), propertyId);
+    }
+
+    @Override
+    public void lockAll(final Collection<Long> propertyIds) {
+        checkTransaction();
+        // stripe order, the order of the property IDs says nothing about the order of their stripes
+        final Map<Integer, Long> propertyIdByStripe = new TreeMap<>();
+        propertyIds.forEach(propertyId -> propertyIdByStripe.putIfAbsent(stripeIndexFor(propertyId), propertyId));
+        propertyIdByStripe.forEach(this::lockStripe);
+    }
+
+    private static void checkTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Property locks can only be taken inside a transaction");
+        }
+    }
+
+    private void lockStripe(final int stripe, final Long propertyId) {
+        final ReentrantLock lock = stripes[stripe];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ConflictException(ConflictReasonEnum.LOCK_TIMEOUT, "Property is being updated, please try again",
+                        propertyId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException(ConflictReasonEnum.LOCK_TIMEOUT, "Property is being updated, please try again",
+                    propertyId);
+        }
+
+        // afterCompletion runs on the thread that owns the lock
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeIndexFor(final Long propertyId) {
+        final int hash = Long.hashCode(propertyId) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
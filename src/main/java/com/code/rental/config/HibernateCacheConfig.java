@@ -0,0 +1,33 @@
+package com.code.rental.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String CACHING_PROVIDER = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    /**
+     * Cache manager of the second-level cache regions, configured by application.conf. JCache hands out one manager
+     * per URI and class loader, so each application context gets a URI of its own: contexts sharing a JVM, like the
+     * ones of the tests and benchmarks, would otherwise serve each other's rows for the same IDs.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CACHING_PROVIDER)
+                .getCacheManager(URI.create("rental-" + UUID.randomUUID()), HibernateCacheConfig.class.getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(final CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,19 @@
+package com.code.rental.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Conflicts are tagged by property; past the first {@code app.metrics.max-conflict-properties} properties new ones
+     * are not counted, so a flood of distinct properties cannot grow the registry without bounds.
+     */
+    @Bean
+    public MeterFilter conflictPropertiesLimit(@Value("${app.metrics.max-conflict-properties:200}") final int maxProperties) {
+        return MeterFilter.maximumAllowableTags("rental.availability.conflicts", "property", maxProperties, MeterFilter.deny());
+    }
+}
@@ -1,9 +1,13 @@
 package com.code.rental.config;
 
 import com.code.rental.exception.handler.ForbiddenHandler;
+import com.code.rental.security.BoundedPasswordEncoder;
 import com.code.rental.exception.handler.UnauthorizedHandler;
 import com.code.rental.security.jwt.JwtAuthTokenFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +21,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @RequiredArgsConstructor
 @Configuration
 public class SecurityConfig {
@@ -30,6 +36,8 @@ public class SecurityConfig {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // the request that started a streamed response was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/auth/**",
                                 "/h2-console/**",
@@ -54,7 +62,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.password-hashing.threads:0}") final int threads,
+                                           @Value("${app.security.password-hashing.queue-capacity:100}") final int queueCapacity,
+                                           @Value("${app.security.password-hashing.retry-after:1s}") final Duration retryAfter,
+                                           final MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, retryAfter, meterRegistry);
     }
 }
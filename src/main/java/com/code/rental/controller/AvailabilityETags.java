@@ -0,0 +1,20 @@
+package com.code.rental.controller;
+
+/**
+ * Entity tags derived from a property's availability version, which changes with every committed change of its
+ * entries. Listings serialise the same rows to the same bytes, so their tags are strong; the iCalendar export stamps
+ * each response with the time it was written, so its tag is weak.
+ */
+final class AvailabilityETags {
+
+    private AvailabilityETags() {
+    }
+
+    static String strong(final long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String weak(final long version) {
+        return "W/\"" + version + "\"";
+    }
+}
@@ -1,16 +1,25 @@
 package com.code.rental.controller;
 
+import com.code.rental.controller.dto.request.BlockBatchRequestDTO;
 import com.code.rental.controller.dto.request.BlockRequestDTO;
+import com.code.rental.controller.dto.request.KeysetCursor;
+import com.code.rental.controller.dto.response.BlockBatchResponseDTO;
 import com.code.rental.controller.dto.response.BlockResponseDTO;
+import com.code.rental.idempotency.IdempotentRequests;
 import com.code.rental.service.BlockService;
+import com.code.rental.service.PropertyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
@@ -24,22 +33,61 @@ import java.util.List;
 public class BlockController {
 
     private final BlockService blockService;
+    private final PropertyService propertyService;
+    private final ObjectMapper objectMapper;
+    private final IdempotentRequests idempotentRequests;
+    private final SingleFlightReads singleFlightReads;
 
-    @Operation(summary = "Get blocks by property ID")
+    @Operation(summary = "Get blocks by property ID, ordered by start date (next page in the Link header, supports If-None-Match)")
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<BlockResponseDTO> getBlocksByPropertyId(@RequestParam final Long propertyId) {
-        return blockService.getBlocksByPropertyId(propertyId);
+    public ResponseEntity<List<BlockResponseDTO>> getBlocksByPropertyId(
+            @RequestParam final Long propertyId,
+            @RequestParam(required = false) final String after,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_LIMIT) final int limit,
+            final WebRequest request) {
+        final KeysetCursor cursor = KeysetCursor.parse(after);
+        // read before the blocks: a change committed in between makes the tag older than the body, never newer
+        final long version = singleFlightReads.read("availability-version", List.of(propertyId),
+                () -> propertyService.getAvailabilityVersion(propertyId));
+        final String eTag = AvailabilityETags.strong(version);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        // keyed by the version too, the page has to match the tag
+        final List<BlockResponseDTO> blocks = singleFlightReads.read("blocks", List.of(propertyId, version, cursor, limit),
+                () -> blockService.getBlocksByPropertyId(propertyId, cursor, limit));
+        return KeysetLinks.page(blocks, limit, block -> new KeysetCursor(block.getStartDate(), block.getId()), eTag);
     }
 
-    @Operation(summary = "Create a block")
+    @Operation(summary = "Stream all blocks of a property as newline-delimited JSON")
+    @GetMapping(produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBlocksByPropertyId(
+            @RequestParam final Long propertyId,
+            @RequestParam(required = false) final String after) {
+        final KeysetCursor cursor = KeysetCursor.parse(after);
+        return NdjsonResponses.<BlockResponseDTO>stream(objectMapper,
+                rows -> blockService.streamBlocksByPropertyId(propertyId, cursor, rows));
+    }
+
+    @Operation(summary = "Create a block (retries with the same Idempotency-Key replay the first response)")
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<BlockResponseDTO> createBlock(@RequestBody @Valid final BlockRequestDTO blockDTO) {
-        final BlockResponseDTO block = blockService.createBlock(blockDTO);
+    public ResponseEntity<BlockResponseDTO> createBlock(
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) final String idempotencyKey,
+            @RequestBody @Valid final BlockRequestDTO blockDTO) {
+        return idempotentRequests.execute("POST /blocks", idempotencyKey, blockDTO, BlockResponseDTO.class, () -> {
+            final BlockResponseDTO block = blockService.createBlock(blockDTO);
 
-        final URI location = UriComponentsBuilder.fromPath("/bookings/{id}")
-                .buildAndExpand(block.getId()).toUri();
+            final URI location = UriComponentsBuilder.fromPath("/bookings/{id}")
+                    .buildAndExpand(block.getId()).toUri();
+
+            return ResponseEntity.created(location).body(block);
+        });
+    }
 
-        return ResponseEntity.created(location).body(block);
+    @Operation(summary = "Create many blocks of one or more properties, with a result per block")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public BlockBatchResponseDTO createBlocks(@RequestBody @Valid final BlockBatchRequestDTO batchDTO) {
+        return blockService.createBlocks(batchDTO.getBlocks());
     }
 
     @Operation(summary = "Get a block")
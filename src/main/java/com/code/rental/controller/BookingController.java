@@ -1,19 +1,26 @@
 package com.code.rental.controller;
 
 import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.request.KeysetCursor;
 import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.idempotency.IdempotentRequests;
 import com.code.rental.service.BookingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 @SecurityRequirement(name = "bearerAuth")
 @Validated
@@ -23,22 +30,64 @@ import java.net.URI;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final IdempotentRequests idempotentRequests;
+    private final SingleFlightReads singleFlightReads;
 
-    @Operation(summary = "Create a booking")
+    @Operation(summary = "List the bookings of a property you own or your own bookings, ordered by start date "
+            + "(next page in the Link header, bookings of a property support If-None-Match)")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BookingResponseDTO>> getBookings(
+            @RequestParam(required = false) final Long propertyId,
+            @RequestParam(required = false) final Long guestId,
+            @RequestParam(required = false) final String after,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_LIMIT) final int limit,
+            final WebRequest request) {
+        final KeysetCursor cursor = KeysetCursor.parse(after);
+        // read before the bookings: a change committed in between makes the tag older than the body, never newer
+        final Long version = bookingService.getBookingsVersion(propertyId, guestId);
+        final String eTag = version == null ? null : AvailabilityETags.strong(version);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        final List<BookingResponseDTO> bookings = bookingService.getBookings(propertyId, guestId, cursor, limit);
+        return KeysetLinks.page(bookings, limit, booking -> new KeysetCursor(booking.getStartDate(), booking.getId()), eTag);
+    }
+
+    @Operation(summary = "Stream the bookings of a property you own or your own bookings as newline-delimited JSON")
+    @GetMapping(produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings(
+            @RequestParam(required = false) final Long propertyId,
+            @RequestParam(required = false) final Long guestId,
+            @RequestParam(required = false) final String after) {
+        final KeysetCursor cursor = KeysetCursor.parse(after);
+        // fail before the response is committed
+        bookingService.checkCanListBookings(propertyId, guestId);
+        return NdjsonResponses.<BookingResponseDTO>stream(objectMapper,
+                rows -> bookingService.streamBookings(propertyId, guestId, cursor, rows));
+    }
+
+    @Operation(summary = "Create a booking (retries with the same Idempotency-Key replay the first response)")
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<BookingResponseDTO> createBooking(@RequestBody @Valid BookingRequestDTO bookingDTO) {
-        final BookingResponseDTO bookingResponseDTO = bookingService.createBooking(bookingDTO);
+    public ResponseEntity<BookingResponseDTO> createBooking(
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+            @RequestBody @Valid BookingRequestDTO bookingDTO) {
+        return idempotentRequests.execute("POST /bookings", idempotencyKey, bookingDTO, BookingResponseDTO.class, () -> {
+            final BookingResponseDTO bookingResponseDTO = bookingService.createBooking(bookingDTO);
 
-        final URI location = UriComponentsBuilder.fromPath("/bookings/{id}")
-                .buildAndExpand(bookingResponseDTO.getId()).toUri();
+            final URI location = UriComponentsBuilder.fromPath("/bookings/{id}")
+                    .buildAndExpand(bookingResponseDTO.getId()).toUri();
 
-        return ResponseEntity.created(location).body(bookingResponseDTO);
+            return ResponseEntity.created(location).body(bookingResponseDTO);
+        });
     }
 
     @Operation(summary = "Get a booking")
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public BookingResponseDTO getBooking(@PathVariable Long id) {
-        return bookingService.getBookingById(id);
+        // every caller gets the same projection of the booking
+        return singleFlightReads.read("booking", List.of(id, BookingResponseDTO.class),
+                () -> bookingService.getBookingById(id));
     }
 
     @Operation(summary = "Update booking dates and guest details")
@@ -0,0 +1,57 @@
+package com.code.rental.controller;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.controller.dto.response.HoldResponseDTO;
+import com.code.rental.service.BookingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+@SecurityRequirement(name = "bearerAuth")
+@Validated
+@RequiredArgsConstructor
+@RequestMapping("holds")
+@RestController
+public class HoldController {
+
+    private final BookingService bookingService;
+
+    @Operation(summary = "Hold the dates of a booking for a few minutes before confirming it")
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<HoldResponseDTO> holdBooking(@RequestBody @Valid BookingRequestDTO bookingDTO) {
+        final HoldResponseDTO holdResponseDTO = bookingService.holdBooking(bookingDTO);
+
+        final URI location = UriComponentsBuilder.fromPath("/holds/{id}")
+                .buildAndExpand(holdResponseDTO.getId()).toUri();
+
+        return ResponseEntity.created(location).body(holdResponseDTO);
+    }
+
+    @Operation(summary = "Confirm a hold, creating its booking")
+    @PostMapping(value = "/{id}/booking", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookingResponseDTO> confirmHold(@PathVariable UUID id) {
+        final BookingResponseDTO bookingResponseDTO = bookingService.confirmHold(id);
+
+        final URI location = UriComponentsBuilder.fromPath("/bookings/{id}")
+                .buildAndExpand(bookingResponseDTO.getId()).toUri();
+
+        return ResponseEntity.created(location).body(bookingResponseDTO);
+    }
+
+    @Operation(summary = "Release a hold")
+    @DeleteMapping(value = "/{id}")
+    public ResponseEntity<Void> releaseHold(@PathVariable UUID id) {
+        bookingService.releaseHold(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.code.rental.controller;
+
+import com.code.rental.controller.dto.request.KeysetCursor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pages keep the plain JSON array body and advertise the next page in a {@code Link: <...>; rel="next"} header.
+ */
+final class KeysetLinks {
+
+    private KeysetLinks() {
+    }
+
+    static <T> ResponseEntity<List<T>> page(final List<T> items, final int limit, final Function<T, KeysetCursor> cursorOf) {
+        return page(items, limit, cursorOf, null);
+    }
+
+    /**
+     * Same page, also carrying the entity tag the caller checked the request against, if any.
+     */
+    static <T> ResponseEntity<List<T>> page(final List<T> items, final int limit, final Function<T, KeysetCursor> cursorOf,
+                                            final String eTag) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (items.size() < limit) {
+            return response.body(items);
+        }
+        final String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", cursorOf.apply(items.get(items.size() - 1)))
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        return response
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(items);
+    }
+}
@@ -0,0 +1,38 @@
+package com.code.rental.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes rows as newline-delimited JSON while they are read, so a listing is never held on the heap as a whole.
+ */
+final class NdjsonResponses {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private NdjsonResponses() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> stream(final ObjectMapper objectMapper,
+                                                             final Consumer<Consumer<T>> rows) {
+        final ObjectWriter writer = objectMapper.writer();
+        final StreamingResponseBody body = out -> rows.accept(row -> {
+            try {
+                out.write(writer.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+}
@@ -0,0 +1,104 @@
+package com.code.rental.controller;
+
+import com.code.rental.availability.AvailabilityEventHub;
+import com.code.rental.controller.dto.request.PropertyBatchRequestDTO;
+import com.code.rental.controller.dto.response.BatchCreatedResponseDTO;
+import com.code.rental.controller.dto.response.CalendarImportResponseDTO;
+import com.code.rental.controller.dto.response.CalendarResponseDTO;
+import com.code.rental.controller.dto.response.PageResponseDTO;
+import com.code.rental.controller.dto.response.PropertyResponseDTO;
+import com.code.rental.ical.ICalendarWriter;
+import com.code.rental.service.BlockService;
+import com.code.rental.service.PropertyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@SecurityRequirement(name = "bearerAuth")
+@Validated
+@RequiredArgsConstructor
+@RequestMapping("properties")
+@RestController
+public class PropertyController {
+
+    private final PropertyService propertyService;
+    private final BlockService blockService;
+    private final AvailabilityEventHub availabilityEventHub;
+
+    @Operation(summary = "Search properties that are free for the whole date range, in ID order "
+            + "(location matches by prefix, ignoring case; hasNext tells whether another page follows, "
+            + "after=<last ID of a page> reads the next one without skipping the previous rows)")
+    @GetMapping(value = "/available", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PageResponseDTO<PropertyResponseDTO> getAvailableProperties(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to,
+            @RequestParam(required = false) final String location,
+            @RequestParam(required = false) final Long after,
+            @RequestParam(defaultValue = "0") final int page,
+            @RequestParam(defaultValue = "20") final int size) {
+        return propertyService.getAvailableProperties(from, to, location, after, page, size);
+    }
+
+    @Operation(summary = "Get the unavailable days of a property between two dates")
+    @GetMapping(value = "/{id}/calendar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CalendarResponseDTO getCalendar(@PathVariable final Long id,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to) {
+        return propertyService.getCalendar(id, from, to);
+    }
+
+    @Operation(summary = "Push the committed changes of a property's bookings and blocks as Server-Sent Events")
+    @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable final Long id) {
+        return availabilityEventHub.subscribe(id, propertyService.getAvailabilityVersion(id));
+    }
+
+    @Operation(summary = "Create many properties of the logged user in one batched transaction")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public BatchCreatedResponseDTO createProperties(@RequestBody @Valid final PropertyBatchRequestDTO batchDTO) {
+        return propertyService.createProperties(batchDTO.getProperties());
+    }
+
+    @Operation(summary = "Export the booked and blocked days of a property as iCalendar (supports If-None-Match)")
+    @GetMapping(value = "/{id}/calendar.ics", produces = ICalendarWriter.TEXT_CALENDAR_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCalendar(@PathVariable final Long id, final WebRequest request) {
+        final String eTag = AvailabilityETags.weak(propertyService.getAvailabilityVersion(id));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        final StreamingResponseBody body = out -> {
+            final ICalendarWriter writer = new ICalendarWriter(out, id);
+            propertyService.streamCalendarEvents(id, writer::write);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.parseMediaType(ICalendarWriter.TEXT_CALENDAR_VALUE))
+                .body(body);
+    }
+
+    @Operation(summary = "Replace the blocks of a property with the events of an iCalendar feed")
+    @PutMapping(value = "/{id}/calendar.ics", consumes = ICalendarWriter.TEXT_CALENDAR_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CalendarImportResponseDTO importCalendar(@PathVariable final Long id, final InputStream feed) throws IOException {
+        return blockService.importCalendar(id, new InputStreamReader(feed, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.code.rental.controller;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: a caller asking for what another caller is already reading waits for that
+ * read instead of running its own, so a burst of identical requests costs one transaction. Only reads still running
+ * are shared, nothing is cached once they complete.
+ * <p>
+ * The key has to cover everything the response depends on, including the caller when the response is filtered for
+ * it. A caller only joins a read that started after the last availability change committed before the caller arrived,
+ * so a client never reads back less than its own committed write; reads that started earlier are left to finish for
+ * the callers already waiting on them.
+ * <p>
+ * A caller waits at most {@code app.reads.coalescing.timeout} for the shared read, then runs its own read, so a stuck
+ * read does not hold every caller that joined it.
+ * <p>
+ * Every caller is counted by {@code rental.reads}, tagged with the resource and whether it was {@code coalesced} into
+ * another caller's read; the coalesce ratio is the share of {@code coalesced=true}.
+ */
+@Component
+class SingleFlightReads {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final Map<List<Object>, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong commits = new AtomicLong();
+
+    SingleFlightReads(final MeterRegistry meterRegistry,
+                      @Value("${app.reads.coalescing.timeout:5s}") final Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+    }
+
+    // after commit, once per published change
+    @TransactionalEventListener
+    public void onAvailabilityEvent(final AvailabilityEventDTO event) {
+        commits.incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T read(final String resource, final List<Object> key, final Supplier<T> read) {
+        final List<Object> flightKey = List.of(resource, key);
+        // taken before the read starts, a read started at a later count sees every change committed up to this one
+        final Flight flight = new Flight(commits.get(), new CompletableFuture<>());
+        final Flight running = inFlight.compute(flightKey,
+                (ignored, current) -> current != null && current.commits() >= flight.commits() ? current : flight);
+        if (running != flight) {
+            try {
+                final T result = (T) running.result().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                count(resource, true);
+                return result;
+            } catch (TimeoutException e) {
+                count(resource, false);
+                return read.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for a read", RETRY_AFTER);
+            } catch (ExecutionException e) {
+                count(resource, true);
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        count(resource, false);
+        try {
+            final T result = read.get();
+            // later callers start a new read
+            inFlight.remove(flightKey, flight);
+            flight.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(flightKey, flight);
+            flight.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void count(final String resource, final boolean coalesced) {
+        meterRegistry.counter("rental.reads", "resource", resource, "coalesced", String.valueOf(coalesced)).increment();
+    }
+
+    private record Flight(long commits, CompletableFuture<Object> result) {
+    }
+}
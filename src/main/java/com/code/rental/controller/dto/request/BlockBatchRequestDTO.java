@@ -0,0 +1,24 @@
+package com.code.rental.controller.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlockBatchRequestDTO {
+
+    public static final int MAX_SIZE = 10_000;
+
+    // items are validated one by one, an invalid item is reported in its result instead of failing the whole batch
+    @NotEmpty(message = "At least one block is required")
+    @Size(max = MAX_SIZE, message = "At most " + MAX_SIZE + " blocks can be imported at once")
+    private List<BlockRequestDTO> blocks;
+}
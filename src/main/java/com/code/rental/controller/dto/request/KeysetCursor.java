@@ -0,0 +1,43 @@
+package com.code.rental.controller.dto.request;
+
+import com.code.rental.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a listing ordered by {@code (startDate, id)}, passed as {@code after=<startDate>,<id>}. The next page
+ * starts strictly after it, so it stays stable while rows are inserted or removed in front of it.
+ */
+public record KeysetCursor(LocalDate startDate, Long id) {
+
+    public static final KeysetCursor START = new KeysetCursor(LocalDate.of(1, 1, 1), 0L);
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    public static KeysetCursor parse(final String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        final String[] parts = value.split(",");
+        try {
+            if (parts.length == 2) {
+                return new KeysetCursor(LocalDate.parse(parts[0].trim()), Long.valueOf(parts[1].trim()));
+            }
+        } catch (DateTimeParseException | NumberFormatException ignored) {
+            // reported below
+        }
+        throw new BadRequestException("Invalid cursor, expected after=<startDate>,<id>");
+    }
+
+    public static void checkLimit(final int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return startDate + "," + id;
+    }
+}
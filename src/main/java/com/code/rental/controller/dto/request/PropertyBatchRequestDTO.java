@@ -0,0 +1,25 @@
+package com.code.rental.controller.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyBatchRequestDTO {
+
+    public static final int MAX_SIZE = 100_000;
+
+    @NotEmpty(message = "At least one property is required")
+    @Size(max = MAX_SIZE, message = "At most " + MAX_SIZE + " properties can be imported at once")
+    @Valid
+    private List<PropertyRequestDTO> properties;
+}
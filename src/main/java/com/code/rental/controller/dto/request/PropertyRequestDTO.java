@@ -0,0 +1,23 @@
+package com.code.rental.controller.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyRequestDTO {
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 255)
+    private String name;
+    @Size(max = 255)
+    private String description;
+    @Size(max = 255)
+    private String location;
+}
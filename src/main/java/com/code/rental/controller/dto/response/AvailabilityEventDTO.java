@@ -0,0 +1,27 @@
+package com.code.rental.controller.dto.response;
+
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A committed change of a booking or block, as pushed to availability subscribers. Guest details are never included.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityEventDTO {
+
+    private AvailabilityEventTypeEnum type;
+    private Long id;
+    private Long propertyId;
+    private EntryTypeEnum entryType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,18 @@
+package com.code.rental.controller.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchCreatedResponseDTO {
+    private int created;
+    // in request order
+    private List<Long> ids;
+}
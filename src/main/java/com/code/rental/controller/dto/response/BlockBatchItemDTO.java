@@ -0,0 +1,28 @@
+package com.code.rental.controller.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlockBatchItemDTO {
+
+    public enum Status {
+        CREATED, INVALID, NOT_FOUND, NOT_OWNER, CONFLICT
+    }
+
+    // position of the block in the request
+    private int index;
+    private Status status;
+    private Long id;
+    private Long propertyId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String message;
+}
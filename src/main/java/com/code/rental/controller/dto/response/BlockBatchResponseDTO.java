@@ -0,0 +1,19 @@
+package com.code.rental.controller.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlockBatchResponseDTO {
+    private int created;
+    private int rejected;
+    // in request order
+    private List<BlockBatchItemDTO> results;
+}
@@ -0,0 +1,20 @@
+package com.code.rental.controller.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CalendarImportResponseDTO {
+    private int created;
+    private int unchanged;
+    private int removed;
+    // feed events that overlap a booking, a kept block or an earlier event of the feed, in date order
+    private List<DateRangeDTO> conflicts;
+}
@@ -0,0 +1,18 @@
+package com.code.rental.controller.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyResponseDTO {
+    private Long id;
+    private Long ownerId;
+    private String name;
+    private String description;
+    private String location;
+}
@@ -0,0 +1,63 @@
+package com.code.rental.domain;
+
+import com.code.rental.domain.enums.BookingStatusEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * An {@link AvailabilityEntry} that ended before the retention window, moved out of the hot table by the
+ * {@link com.code.rental.availability.AvailabilityArchiver} with its ID and columns unchanged.
+ * <p>
+ * Archived entries are read-only: they are only found by ID and never take part in conflict checks.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "availability_entry_archive")
+public class ArchivedAvailabilityEntry {
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntryTypeEnum type;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false, name = "property_id")
+    private Property property;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatusEnum status;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "guest_id")
+    private User guest;
+
+    @Column(length = 255)
+    private String guestName;
+
+    @Column(length = 255)
+    private String guestEmail;
+
+    @Column(length = 255)
+    private String guestPhone;
+
+}
@@ -1,5 +1,6 @@
 package com.code.rental.domain;
 
+import com.code.rental.availability.AvailabilityEntryListener;
 import com.code.rental.domain.enums.BookingStatusEnum;
 import com.code.rental.domain.enums.EntryTypeEnum;
 import jakarta.persistence.*;
@@ -15,10 +16,17 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(AvailabilityEntryListener.class)
 @Table(
         indexes = {
                 // add indexes for faster search
-                @Index(name = "idx_property_dates", columnList = "property_id, startDate, endDate")
+                @Index(name = "idx_property_dates", columnList = "property_id, startDate, endDate"),
+                // conflict checks: one range seek on the ACTIVE entries of the property, answered from the index alone
+                @Index(name = "idx_property_status_dates", columnList = "property_id, status, startDate, endDate"),
+                // guest booking history
+                @Index(name = "idx_guest_dates", columnList = "guest_id, startDate"),
+                // entries to move to the archive
+                @Index(name = "idx_end_date", columnList = "endDate")
         },
         uniqueConstraints = {
                 // add unique constraints to avoid duplicates
@@ -27,8 +35,13 @@ import java.time.LocalDate;
 )
 public class AvailabilityEntry {
 
+    public static final String ID_SEQUENCE = "availability_entry_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence: IDs are handed out in blocks of 50 so inserts can be JDBC-batched (IDENTITY forces one
+    // round trip per row to read the key back)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = AvailabilityEntry.ID_SEQUENCE)
+    @SequenceGenerator(name = AvailabilityEntry.ID_SEQUENCE, sequenceName = AvailabilityEntry.ID_SEQUENCE, allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
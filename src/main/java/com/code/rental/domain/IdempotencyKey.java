@@ -0,0 +1,42 @@
+package com.code.rental.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An {@code Idempotency-Key} claimed by a request, with the response to replay once the request completed. Rows expire
+ * after {@code app.idempotency.ttl} once completed, or after {@code app.idempotency.in-flight-timeout} while the
+ * request is still running, so a claim left by a node that went down does not block the key for good.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+public class IdempotencyKey {
+
+    // caller, operation and key
+    @Id
+    @Column(length = 512)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // null while the request is running
+    private Integer status;
+
+    private String location;
+
+    @Column(length = 65536)
+    private String body;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
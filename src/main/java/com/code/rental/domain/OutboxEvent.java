@@ -0,0 +1,60 @@
+package com.code.rental.domain;
+
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * An availability event waiting to be published, written in the same transaction as the change it describes and
+ * deleted once published.
+ * <p>
+ * Events of a property are published in {@code (propertyVersion, id)} order: the version is the property's
+ * availability version committed by the writing transaction, which increases in commit order, and IDs order the
+ * events of one transaction.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_property_version", columnList = "propertyId, propertyVersion"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long propertyId;
+
+    @Column(nullable = false)
+    private Long propertyVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AvailabilityEventTypeEnum type;
+
+    @Column(nullable = false)
+    private Long entryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntryTypeEnum entryType;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
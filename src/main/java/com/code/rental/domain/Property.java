@@ -6,17 +6,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Locale;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(
+        indexes = {
+                // prefix search of the availability search, rows come back in ID order for the page
+                @Index(name = "idx_property_search_location", columnList = "searchLocation, id")
+        }
+)
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "property")
 public class Property {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_seq")
+    @SequenceGenerator(name = "property_seq", sequenceName = "property_seq", allocationSize = 50)
     private Long id;
 
     @Size(max = 255)
@@ -26,7 +38,31 @@ public class Property {
     @Size(max = 255)
     private String location;
 
+    // trimmed, lower-cased copy of the location, kept by Hibernate for the indexed prefix search
+    @Size(max = 255)
+    private String searchLocation;
+
     @ManyToOne
     @JoinColumn(nullable = false, name = "owner_id")
     private User owner;
+
+    // bumped with plain SQL by every transaction that changes an entry of the property, never written by Hibernate;
+    // the cached entity keeps the value it was loaded with, read it with findAvailabilityVersionById instead
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private Long availabilityVersion = 0L;
+
+    /**
+     * The form a location is searched by, see {@link #getSearchLocation()}.
+     */
+    public static String searchLocationOf(final String location) {
+        return location == null ? null : location.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchLocation() {
+        searchLocation = searchLocationOf(location);
+    }
 }
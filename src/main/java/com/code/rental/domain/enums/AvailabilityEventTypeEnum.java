@@ -0,0 +1,5 @@
+package com.code.rental.domain.enums;
+
+public enum AvailabilityEventTypeEnum {
+    CREATED, UPDATED, CANCELED, REBOOKED, DELETED
+}
@@ -0,0 +1,5 @@
+package com.code.rental.domain.enums;
+
+public enum ConflictReasonEnum {
+    UNAVAILABLE, RACE_LOST, LOCK_TIMEOUT, OWN_PROPERTY, NOT_OWNER, HOLD_LIMIT
+}
@@ -1,11 +1,28 @@
 package com.code.rental.exception;
 
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+@Getter
 @ResponseStatus(HttpStatus.CONFLICT)
 public class ConflictException extends RuntimeException {
-    public ConflictException(String message) {
+
+    private final ConflictReasonEnum reason;
+
+    /**
+     * Property whose availability caused the conflict, {@code null} when the conflict is about who asked.
+     */
+    private final Long propertyId;
+
+    public ConflictException(ConflictReasonEnum reason, String message) {
+        this(reason, message, null);
+    }
+
+    public ConflictException(ConflictReasonEnum reason, String message, Long propertyId) {
         super(message);
+        this.reason = reason;
+        this.propertyId = propertyId;
     }
 }
@@ -3,7 +3,10 @@ package com.code.rental.exception.handler;
 import com.code.rental.exception.BadRequestException;
 import com.code.rental.exception.ConflictException;
 import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.exception.ServiceUnavailableException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -63,12 +66,27 @@ public class GlobalExceptionHandler {
         return buildErrorResponse("Property is not available for the selected dates", HttpStatus.CONFLICT);
     }
 
+    // writers lock the property before reading the entry, this is only reached by a write outside of that lock
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest request) {
+        return buildErrorResponse("The entry was changed by another request, please try again", HttpStatus.CONFLICT);
+    }
+
     // 422 Unprocessable Entity
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
         return buildErrorResponse(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    // 503 Service Unavailable
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Object> handleServiceUnavailable(ServiceUnavailableException ex, WebRequest request) {
+        ResponseEntity<Object> response = buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response.getBody());
+    }
+
     // 500 Internal Server Error
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGlobalException(Exception ex, WebRequest request) {
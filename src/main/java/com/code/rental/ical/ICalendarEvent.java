@@ -0,0 +1,11 @@
+package com.code.rental.ical;
+
+import com.code.rental.domain.enums.EntryTypeEnum;
+
+import java.time.LocalDate;
+
+/**
+ * An ACTIVE availability entry as exported to iCalendar, both dates inclusive.
+ */
+public record ICalendarEvent(Long id, EntryTypeEnum type, LocalDate startDate, LocalDate endDate) {
+}
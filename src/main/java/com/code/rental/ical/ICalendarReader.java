@@ -0,0 +1,187 @@
+package com.code.rental.ical;
+
+import com.code.rental.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the VEVENTs of an RFC 5545 calendar one unfolded line at a time, so a feed of any size is never held in memory.
+ * <p>
+ * Only the days an event occupies are kept: DTSTART and DTEND (exclusive, as written by every calendar for all-day
+ * events) or a DURATION in days or weeks. Date-times are reduced to their date. Cancelled events and events marked as
+ * free time ({@code TRANSP:TRANSPARENT}) are skipped.
+ */
+public final class ICalendarReader {
+
+    public static final int MAX_LINE_LENGTH = 16 * 1024;
+    public static final int MAX_EVENTS = 100_000;
+
+    private static final Pattern DAYS_DURATION = Pattern.compile("P(?:(\\d+)W)?(?:(\\d+)D)?(?:T.*)?");
+
+    private ICalendarReader() {
+    }
+
+    /**
+     * Hands the first and last day (both inclusive) of every event to the consumer, in feed order.
+     *
+     * @return the number of events handed over
+     */
+    public static int readEvents(final Reader reader, final BiConsumer<LocalDate, LocalDate> events) throws IOException {
+        final BufferedReader lines = new BufferedReader(reader);
+        final EventState event = new EventState();
+        final StringBuilder logical = new StringBuilder();
+        int count = 0;
+
+        for (String line = lines.readLine(); ; line = lines.readLine()) {
+            // a line starting with white space continues the previous one
+            if (line != null && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t')) {
+                if (logical.length() + line.length() > MAX_LINE_LENGTH) {
+                    throw new BadRequestException("Invalid calendar: line longer than " + MAX_LINE_LENGTH + " characters");
+                }
+                logical.append(line, 1, line.length());
+                continue;
+            }
+            if (!logical.isEmpty() && event.accept(logical.toString())) {
+                if (++count > MAX_EVENTS) {
+                    throw new BadRequestException("Invalid calendar: more than " + MAX_EVENTS + " events");
+                }
+                events.accept(event.startDate, event.endDate);
+            }
+            if (line == null) {
+                return count;
+            }
+            if (line.length() > MAX_LINE_LENGTH) {
+                throw new BadRequestException("Invalid calendar: line longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            logical.setLength(0);
+            logical.append(line);
+        }
+    }
+
+    private static final class EventState {
+
+        private boolean inEvent;
+        private boolean skipped;
+        private String start;
+        private String end;
+        private String duration;
+        private LocalDate startDate;
+        private LocalDate endDate;
+
+        /**
+         * @return true if the line completed an event that should be reported
+         */
+        boolean accept(final String line) {
+            final int nameEnd = indexOfAny(line, ';', ':');
+            final int valueStart = valueStart(line, nameEnd);
+            if (nameEnd < 0 || valueStart < 0) {
+                return false;
+            }
+            final String name = line.substring(0, nameEnd).toUpperCase();
+            final String value = line.substring(valueStart).trim();
+
+            if (name.equals("BEGIN") && value.equalsIgnoreCase("VEVENT")) {
+                inEvent = true;
+                skipped = false;
+                start = end = duration = null;
+                return false;
+            }
+            if (!inEvent) {
+                return false;
+            }
+            switch (name) {
+                case "DTSTART" -> start = value;
+                case "DTEND" -> end = value;
+                case "DURATION" -> duration = value;
+                case "STATUS" -> skipped |= value.equalsIgnoreCase("CANCELLED");
+                case "TRANSP" -> skipped |= value.equalsIgnoreCase("TRANSPARENT");
+                case "END" -> {
+                    if (value.equalsIgnoreCase("VEVENT")) {
+                        inEvent = false;
+                        return !skipped && resolve();
+                    }
+                }
+                default -> {
+                    // other properties are irrelevant to availability
+                }
+            }
+            return false;
+        }
+
+        private boolean resolve() {
+            if (start == null) {
+                throw new BadRequestException("Invalid calendar: event without DTSTART");
+            }
+            startDate = dateOf(start);
+            if (end != null) {
+                final LocalDate last = dateOf(end);
+                // an end at midnight is exclusive, it does not occupy that day
+                endDate = startsDay(end) ? last.minusDays(1) : last;
+            } else if (duration != null) {
+                endDate = startDate.plusDays(Math.max(daysOf(duration), 1) - 1L);
+            } else {
+                endDate = startDate;
+            }
+            if (endDate.isBefore(startDate)) {
+                endDate = startDate;
+            }
+            return true;
+        }
+
+        private static LocalDate dateOf(final String value) {
+            try {
+                return LocalDate.parse(value.substring(0, Math.min(8, value.length())), DateTimeFormatter.BASIC_ISO_DATE);
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid calendar date: " + value);
+            }
+        }
+
+        private static boolean startsDay(final String value) {
+            return value.length() == 8 || value.startsWith("T000000", 8);
+        }
+
+        private static long daysOf(final String value) {
+            final Matcher matcher = DAYS_DURATION.matcher(value.startsWith("+") ? value.substring(1) : value);
+            if (!matcher.matches()) {
+                return 1;
+            }
+            final long weeks = matcher.group(1) == null ? 0 : Long.parseLong(matcher.group(1));
+            final long days = matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2));
+            return weeks * 7 + days;
+        }
+
+        private static int indexOfAny(final String line, final char first, final char second) {
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == first || line.charAt(i) == second) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // the value starts after the first colon that is not inside a quoted parameter value
+        private static int valueStart(final String line, final int from) {
+            if (from < 0) {
+                return -1;
+            }
+            boolean quoted = false;
+            for (int i = from; i < line.length(); i++) {
+                final char c = line.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ':' && !quoted) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.code.rental.ical;
+
+import com.code.rental.domain.enums.EntryTypeEnum;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Writes availability entries as an RFC 5545 calendar of all-day VEVENTs, one event at a time.
+ * <p>
+ * Guest details are never exported, events only say whether the days are booked or blocked.
+ */
+public final class ICalendarWriter {
+
+    public static final String TEXT_CALENDAR_VALUE = "text/calendar";
+
+    private static final String CRLF = "\r\n";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final Writer writer;
+    private final String stamp;
+
+    public ICalendarWriter(final OutputStream out, final Long propertyId) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.stamp = STAMP.format(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//api-property-rental//availability//EN");
+        line("CALSCALE:GREGORIAN");
+        line("X-WR-CALNAME:Property " + propertyId);
+    }
+
+    public void write(final ICalendarEvent event) {
+        line("BEGIN:VEVENT");
+        line("UID:" + event.id() + "@api-property-rental");
+        line("DTSTAMP:" + stamp);
+        line("DTSTART;VALUE=DATE:" + DateTimeFormatter.BASIC_ISO_DATE.format(event.startDate()));
+        // DTEND of an all-day event is exclusive
+        line("DTEND;VALUE=DATE:" + DateTimeFormatter.BASIC_ISO_DATE.format(event.endDate().plusDays(1)));
+        line("SUMMARY:" + (event.type() == EntryTypeEnum.BOOKING ? "Booked" : "Blocked"));
+        line("TRANSP:OPAQUE");
+        line("END:VEVENT");
+    }
+
+    public void finish() {
+        line("END:VCALENDAR");
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void line(final String line) {
+        try {
+            writer.write(line);
+            writer.write(CRLF);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.code.rental.idempotency;
+
+import com.code.rental.domain.IdempotencyKey;
+import com.code.rental.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency store for multi-node deployments, backed by the {@code idempotency_key} table so a retry landing on
+ * another node still finds the first response. The primary key decides which request claims a key.
+ * <p>
+ * Every call runs in its own transaction: a claim has to be visible to the other nodes before the request runs, and
+ * must not be rolled back with it.
+ * <p>
+ * A claim expires {@code app.idempotency.in-flight-timeout} after it was last renewed. While the claiming request runs,
+ * the claim is renewed three times per timeout, so it only lapses once the node holding it went down.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "database")
+@Component
+public class DatabaseIdempotencyStore implements IdempotencyStore, DisposableBean {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+    private final Map<String, ScheduledFuture<?>> renewals = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "idempotency-claim-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DatabaseIdempotencyStore(final IdempotencyKeyRepository idempotencyKeyRepository,
+                                    final PlatformTransactionManager transactionManager,
+                                    @Value("${app.idempotency.ttl:24h}") final Duration ttl,
+                                    @Value("${app.idempotency.in-flight-timeout:30s}") final Duration inFlightTimeout) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(final String key, final String requestHash) {
+        for (int attempt = 1; ; attempt++) {
+            final Instant now = Instant.now();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    idempotencyKeyRepository.deleteExpiredById(key, now);
+                    idempotencyKeyRepository.insertClaim(key, requestHash, now.plus(inFlightTimeout));
+                });
+                renewWhileRunning(key);
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                final Optional<IdempotencyRecord> record = find(key);
+                if (record.isPresent()) {
+                    return record;
+                }
+                // released or expired in between, claim it again; a violation that keeps coming is no duplicate key
+                if (attempt == MAX_CLAIM_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(final String key) {
+        final Instant now = Instant.now();
+        return transactionTemplate.execute(status -> idempotencyKeyRepository.findById(key))
+                .filter(row -> row.getExpiresAt().isAfter(now))
+                .map(row -> new IdempotencyRecord(row.getRequestHash(), row.getStatus(), row.getLocation(), row.getBody()));
+    }
+
+    @Override
+    public void complete(final String key, final IdempotencyRecord record) {
+        stopRenewing(key);
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.complete(key, record.status(),
+                record.location(), record.body(), Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public void release(final String key) {
+        stopRenewing(key);
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(key));
+    }
+
+    private void renewWhileRunning(final String key) {
+        final long periodMillis = Math.max(1, inFlightTimeout.toMillis() / 3);
+        renewals.put(key, renewer.scheduleAtFixedRate(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        idempotencyKeyRepository.renewClaim(key, Instant.now().plus(inFlightTimeout)));
+            } catch (RuntimeException e) {
+                log.warn("Could not renew the claim of idempotency key {}", key, e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void stopRenewing(final String key) {
+        final ScheduledFuture<?> renewal = renewals.remove(key);
+        if (renewal != null) {
+            renewal.cancel(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        renewer.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        final Integer purged = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteAllExpired(Instant.now()));
+        log.debug("Purged {} expired idempotency keys", purged);
+    }
+}
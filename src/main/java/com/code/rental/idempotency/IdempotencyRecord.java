@@ -0,0 +1,16 @@
+package com.code.rental.idempotency;
+
+/**
+ * What an {@link IdempotencyStore} keeps for a key: the hash of the request that claimed it and, once that request
+ * completed, its response. The body is the JSON of the response body.
+ */
+public record IdempotencyRecord(String requestHash, Integer status, String location, String body) {
+
+    static IdempotencyRecord inFlight(final String requestHash) {
+        return new IdempotencyRecord(requestHash, null, null, null);
+    }
+
+    public boolean isCompleted() {
+        return status != null;
+    }
+}
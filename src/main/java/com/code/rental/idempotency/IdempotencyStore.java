@@ -0,0 +1,26 @@
+package com.code.rental.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-evicted store of idempotency keys and the responses of the requests that claimed them.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims the key for a request.
+     *
+     * @return empty if the key is now claimed by this request, otherwise the record of the request that claimed it
+     * before, which may still be running
+     */
+    Optional<IdempotencyRecord> claim(String key, String requestHash);
+
+    Optional<IdempotencyRecord> find(String key);
+
+    void complete(String key, IdempotencyRecord record);
+
+    /**
+     * Gives up the claim of a request that failed, so a retry runs the request again.
+     */
+    void release(String key);
+}
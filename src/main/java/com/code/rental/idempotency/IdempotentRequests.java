@@ -0,0 +1,211 @@
+package com.code.rental.idempotency;
+
+import com.code.rental.exception.BadRequestException;
+import com.code.rental.exception.ServiceUnavailableException;
+import com.code.rental.security.jwt.JwtService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and caller, replaying the first response to its retries.
+ * <p>
+ * A retry of a request still running waits for its response instead of racing it into the database: on the same node
+ * it waits on the first attempt directly, otherwise it polls the {@link IdempotencyStore}. A retry with a different
+ * body is rejected, and a request that fails releases its key so the retry runs it again.
+ */
+@Slf4j
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyStore idempotencyStore;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final Duration inFlightTimeout;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentRequests(final IdempotencyStore idempotencyStore, final JwtService jwtService,
+                              final ObjectMapper objectMapper,
+                              @Value("${app.idempotency.in-flight-timeout:30s}") final Duration inFlightTimeout) {
+        this.idempotencyStore = idempotencyStore;
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    /**
+     * Runs the request, or replays the response of the earlier request with the same key.
+     *
+     * @param operation names the endpoint, the same key may be used once per endpoint
+     * @param key       the {@code Idempotency-Key} header, the request simply runs without it
+     */
+    public <T> ResponseEntity<T> execute(final String operation, final String key, final Object request,
+                                         final Class<T> responseType, final Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        final String scopedKey = jwtService.getLoggedUser().getId() + " " + operation + " " + key;
+        final String requestHash = hash(request);
+        final long deadline = System.nanoTime() + inFlightTimeout.toNanos();
+        while (true) {
+            final CompletableFuture<IdempotencyRecord> attempt = new CompletableFuture<>();
+            final CompletableFuture<IdempotencyRecord> first = inFlight.putIfAbsent(scopedKey, attempt);
+            if (first != null) {
+                final Optional<IdempotencyRecord> record = await(first, deadline);
+                if (record.isPresent()) {
+                    return replay(record.get(), requestHash, responseType);
+                }
+                // the first attempt failed, this one runs the request again
+                continue;
+            }
+
+            try {
+                final Optional<IdempotencyRecord> previous = idempotencyStore.claim(scopedKey, requestHash);
+                if (previous.isEmpty()) {
+                    return run(scopedKey, requestHash, action, attempt);
+                }
+
+                final Optional<IdempotencyRecord> record = previous.get().isCompleted()
+                        ? previous : poll(scopedKey, deadline);
+                if (record.isPresent()) {
+                    attempt.complete(record.get());
+                    return replay(record.get(), requestHash, responseType);
+                }
+                // the request that claimed the key failed on another node, claim it again
+                attempt.completeExceptionally(new IllegalStateException(HEADER + " was released"));
+            } catch (RuntimeException e) {
+                attempt.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(scopedKey, attempt);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> run(final String scopedKey, final String requestHash,
+                                      final Supplier<ResponseEntity<T>> action,
+                                      final CompletableFuture<IdempotencyRecord> attempt) {
+        final ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyStore.release(scopedKey);
+            throw e;
+        }
+
+        final URI location = response.getHeaders().getLocation();
+        final IdempotencyRecord record = new IdempotencyRecord(requestHash, response.getStatusCode().value(),
+                location == null ? null : location.toString(), toJson(response.getBody()));
+        try {
+            idempotencyStore.complete(scopedKey, record);
+        } catch (RuntimeException e) {
+            // the request is done, its response must reach the client even if a retry will not be able to replay it
+            log.error("Could not store the response of idempotency key {}", scopedKey, e);
+        }
+        attempt.complete(record);
+        return response;
+    }
+
+    // empty if the first attempt failed
+    private Optional<IdempotencyRecord> await(final CompletableFuture<IdempotencyRecord> first, final long deadline) {
+        try {
+            return Optional.ofNullable(first.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            throw stillInFlight();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillInFlight();
+        }
+    }
+
+    // waits for a request running on another node, empty if it failed
+    private Optional<IdempotencyRecord> poll(final String scopedKey, final long deadline) {
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            final Optional<IdempotencyRecord> record = idempotencyStore.find(scopedKey);
+            if (record.isEmpty() || record.get().isCompleted()) {
+                return record;
+            }
+        }
+        throw stillInFlight();
+    }
+
+    private <T> ResponseEntity<T> replay(final IdempotencyRecord record, final String requestHash,
+                                         final Class<T> responseType) {
+        if (!record.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.status(record.status())
+                .header(REPLAYED_HEADER, "true");
+        if (record.location() != null) {
+            response.header(HttpHeaders.LOCATION, record.location());
+        }
+        return response.body(record.body() == null ? null : fromJson(record.body(), responseType));
+    }
+
+    private ServiceUnavailableException stillInFlight() {
+        return new ServiceUnavailableException("A request with this " + HEADER + " is still being processed",
+                Duration.ofSeconds(1));
+    }
+
+    private String hash(final Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the request", e);
+        }
+    }
+
+    private String toJson(final Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store the response", e);
+        }
+    }
+
+    private <T> T fromJson(final String body, final Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not replay the response", e);
+        }
+    }
+}
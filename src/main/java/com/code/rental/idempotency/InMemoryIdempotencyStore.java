@@ -0,0 +1,54 @@
+package com.code.rental.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Idempotency store for single-node deployments, a Caffeine cache published as the {@code cache.*} metrics with the
+ * tag {@code cache=idempotency-keys}.
+ */
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+@Component
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(@Value("${app.idempotency.max-keys:100000}") final long maxKeys,
+                                    @Value("${app.idempotency.ttl:24h}") final Duration ttl,
+                                    final MeterRegistry meterRegistry) {
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, records, "idempotency-keys");
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(final String key, final String requestHash) {
+        return Optional.ofNullable(records.asMap().putIfAbsent(key, IdempotencyRecord.inFlight(requestHash)));
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(final String key) {
+        return Optional.ofNullable(records.getIfPresent(key));
+    }
+
+    @Override
+    public void complete(final String key, final IdempotencyRecord record) {
+        records.put(key, record);
+    }
+
+    @Override
+    public void release(final String key) {
+        records.invalidate(key);
+    }
+}
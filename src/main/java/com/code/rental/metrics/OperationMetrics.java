@@ -0,0 +1,124 @@
+package com.code.rental.metrics;
+
+import com.code.rental.exception.BadRequestException;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public method of the booking and block services as {@code rental.operation}, tagged with the service,
+ * the method and its outcome: {@code success}, the {@link com.code.rental.domain.enums.ConflictReasonEnum} of a
+ * conflict, {@code race_lost} when the database rejected a write another transaction won, {@code not_found},
+ * {@code invalid} or {@code error}. The JDBC statements of each call are recorded in
+ * {@code rental.operation.statements}.
+ * <p>
+ * Conflicts on a property's availability are also counted per property in {@code rental.availability.conflicts}, which
+ * shows the contention hot spots. The advice wraps the transaction, so the time and failures of the commit count too.
+ * <p>
+ * Meters are built once per tag combination and reused; the per-property conflict counters are kept in a bounded cache.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Component
+public class OperationMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final StatementCounter statementCounter;
+    private final Map<OperationKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<OperationKey, DistributionSummary> statementSummaries = new ConcurrentHashMap<>();
+    private final Cache<ConflictKey, Counter> conflictCounters = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    @Around("execution(public * com.code.rental.service.BookingService.*(..))"
+            + " || execution(public * com.code.rental.service.BlockService.*(..))")
+    public Object measure(final ProceedingJoinPoint call) throws Throwable {
+        final String service = call.getSignature().getDeclaringType().getSimpleName()
+                .replace("Service", "").toLowerCase(Locale.ROOT);
+        final String operation = call.getSignature().getName();
+        final long statements = statementCounter.count();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.proceed();
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            if (e instanceof ConflictException conflict && conflict.getPropertyId() != null) {
+                conflictCounter(new ConflictKey(conflict.getPropertyId(), outcome)).increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(timer(new OperationKey(service, operation, outcome)));
+            statementSummary(new OperationKey(service, operation, null)).record(statementCounter.count() - statements);
+        }
+    }
+
+    private Timer timer(final OperationKey key) {
+        return timers.computeIfAbsent(key, k -> Timer.builder("rental.operation")
+                .description("Time spent in a booking or block operation, including its commit")
+                .tag("service", k.service())
+                .tag("operation", k.operation())
+                .tag("outcome", k.outcome())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary statementSummary(final OperationKey key) {
+        return statementSummaries.computeIfAbsent(key, k -> DistributionSummary.builder("rental.operation.statements")
+                .description("JDBC statements prepared by a booking or block operation")
+                .tag("service", k.service())
+                .tag("operation", k.operation())
+                .register(meterRegistry));
+    }
+
+    private Counter conflictCounter(final ConflictKey key) {
+        return conflictCounters.get(key, k -> Counter.builder("rental.availability.conflicts")
+                .description("Requests rejected because of the availability of a property")
+                .tag("property", k.propertyId().toString())
+                .tag("reason", k.reason())
+                .register(meterRegistry));
+    }
+
+    private static String outcomeOf(final Throwable e) {
+        if (e instanceof ConflictException conflict) {
+            return conflict.getReason().name().toLowerCase(Locale.ROOT);
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return "race_lost";
+        }
+        if (e instanceof PessimisticLockingFailureException) {
+            return "lock_timeout";
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof BadRequestException || e instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
+    }
+
+    // outcome is null for the meters not tagged with it
+    private record OperationKey(String service, String operation, String outcome) {
+    }
+
+    private record ConflictKey(Long propertyId, String reason) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.code.rental.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Counts the JDBC statements prepared on the current thread, so an operation can report how many statements it cost
+ * by reading {@link #count()} before and after it runs.
+ * <p>
+ * Statements are counted on the connections of every {@link DataSource} bean, so the ones sent through a
+ * {@code JdbcTemplate} count like Hibernate's. A JDBC batch is prepared once and counts once.
+ */
+@Component
+public class StatementCounter implements BeanPostProcessor {
+
+    private final ThreadLocal<long[]> count = ThreadLocal.withInitial(() -> new long[1]);
+
+    public long count() {
+        return count.get()[0];
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private Connection counting(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement", "prepareCall", "createStatement" -> count.get()[0]++;
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private final class CountingDataSource extends DelegatingDataSource {
+
+        private CountingDataSource(final DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(final String username, final String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+    }
+}
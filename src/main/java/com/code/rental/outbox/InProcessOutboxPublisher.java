@@ -0,0 +1,23 @@
+package com.code.rental.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands each message to the {@code @EventListener}s of {@link OutboxMessage} in this application, synchronously: a
+ * listener that throws makes the message be published again.
+ */
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "app.outbox.publisher", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOutboxPublisher implements OutboxPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(final OutboxMessage message) {
+        eventPublisher.publishEvent(message);
+    }
+}
@@ -0,0 +1,58 @@
+package com.code.rental.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends each message as a line of JSON to a local file, a stand-in for a broker. Lines are buffered and written and
+ * synced to disk on {@link #flush()}, before the relay removes them from the outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.publisher", havingValue = "ndjson")
+public class NdjsonFileOutboxPublisher implements OutboxPublisher, DisposableBean {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    public NdjsonFileOutboxPublisher(final ObjectMapper objectMapper,
+                                     @Value("${app.outbox.ndjson.path:outbox-events.ndjson}") final Path path) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(final OutboxMessage message) throws IOException {
+        objectMapper.writeValue(pending, message);
+        pending.write('\n');
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        final ByteBuffer lines = ByteBuffer.wrap(pending.toByteArray());
+        while (lines.hasRemaining()) {
+            channel.write(lines);
+        }
+        channel.force(false);
+        pending.reset();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        channel.close();
+    }
+}
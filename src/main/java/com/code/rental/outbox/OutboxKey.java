@@ -0,0 +1,12 @@
+package com.code.rental.outbox;
+
+import java.util.Comparator;
+
+/**
+ * Publication order of an outbox event within its property.
+ */
+public record OutboxKey(Long id, Long propertyId, Long propertyVersion) {
+
+    static final Comparator<OutboxKey> ORDER = Comparator.comparing(OutboxKey::propertyVersion)
+            .thenComparing(OutboxKey::id);
+}
@@ -0,0 +1,11 @@
+package com.code.rental.outbox;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+
+import java.time.Instant;
+
+/**
+ * What a {@link OutboxPublisher} hands on. Delivery is at-least-once, consumers deduplicate on {@code id}.
+ */
+public record OutboxMessage(Long id, Instant createdAt, AvailabilityEventDTO event) {
+}
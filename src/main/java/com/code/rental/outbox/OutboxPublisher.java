@@ -0,0 +1,19 @@
+package com.code.rental.outbox;
+
+import java.io.IOException;
+
+/**
+ * Destination of the events drained from the outbox by the {@link OutboxRelay}. Messages of a property are handed
+ * over one at a time in commit order; a failure stops that property until the next poll, when the same messages are
+ * handed over again.
+ */
+public interface OutboxPublisher {
+
+    void publish(OutboxMessage message) throws IOException;
+
+    /**
+     * Makes the messages published so far durable. Called before they are removed from the outbox.
+     */
+    default void flush() throws IOException {
+    }
+}
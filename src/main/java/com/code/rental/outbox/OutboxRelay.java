@@ -0,0 +1,150 @@
+package com.code.rental.outbox;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.domain.OutboxEvent;
+import com.code.rental.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox in batches and hands the events to the {@link OutboxPublisher}, at-least-once and in commit order
+ * per property.
+ * <p>
+ * A batch is claimed with row locks that other relays skip, so several nodes share the work, and is published and
+ * deleted in the same transaction: a crash before the commit makes the batch be claimed and published again. Events of
+ * a property are only published as a prefix of its pending events, so a property whose earlier events are claimed by
+ * another relay waits for the next poll instead of overtaking them.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(final OutboxEventRepository outboxEventRepository,
+                       final OutboxPublisher outboxPublisher,
+                       final TransactionTemplate transactionTemplate,
+                       @Value("${app.outbox.batch-size:500}") final int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT0.5S}")
+    public void relayPending() {
+        // keep going while batches come back full
+        while (relay() == batchSize) {
+            log.debug("Outbox backlog, relaying the next batch");
+        }
+    }
+
+    /**
+     * Publishes and deletes one batch of events.
+     *
+     * @return the number of events published
+     */
+    public int relay() {
+        final Integer published = transactionTemplate.execute(status -> relayBatch());
+        return published == null ? 0 : published;
+    }
+
+    private int relayBatch() {
+        final Map<Long, OutboxEvent> claimed = new HashMap<>();
+        outboxEventRepository.claim(Limit.of(batchSize)).forEach(event -> claimed.put(event.getId(), event));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<OutboxKey>> pendingByProperty = pendingByProperty(claimed.values());
+        // earlier events of a property that fell outside the batch: claim them too unless another relay holds them
+        final List<Long> gaps = new ArrayList<>();
+        pendingByProperty.values().forEach(keys -> keys.stream()
+                .filter(key -> !claimed.containsKey(key.id()))
+                .forEach(key -> gaps.add(key.id())));
+        if (!gaps.isEmpty()) {
+            outboxEventRepository.claimByIds(gaps).forEach(event -> claimed.put(event.getId(), event));
+            pendingByProperty = pendingByProperty(claimed.values());
+        }
+
+        final List<Long> published = new ArrayList<>();
+        for (List<OutboxKey> keys : pendingByProperty.values()) {
+            for (OutboxKey key : keys) {
+                final OutboxEvent event = claimed.get(key.id());
+                if (event == null || !publish(event)) {
+                    break;
+                }
+                published.add(event.getId());
+            }
+        }
+
+        if (!published.isEmpty()) {
+            try {
+                outboxPublisher.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not flush published outbox events", e);
+            }
+            outboxEventRepository.deleteAllByIdInBatch(published);
+        }
+        return published.size();
+    }
+
+    /**
+     * Pending events of the claimed events' properties, in publication order, up to the last claimed one of each.
+     */
+    private Map<Long, List<OutboxKey>> pendingByProperty(final Collection<OutboxEvent> claimed) {
+        final Map<Long, OutboxKey> lastClaimed = claimed.stream()
+                .map(OutboxRelay::keyOf)
+                .collect(Collectors.toMap(OutboxKey::propertyId, Function.identity(),
+                        (first, second) -> OutboxKey.ORDER.compare(first, second) >= 0 ? first : second));
+        final long maxVersion = lastClaimed.values().stream().mapToLong(OutboxKey::propertyVersion).max().orElseThrow();
+
+        final Map<Long, List<OutboxKey>> pending = new TreeMap<>();
+        for (OutboxKey key : outboxEventRepository.findKeys(lastClaimed.keySet(), maxVersion)) {
+            if (OutboxKey.ORDER.compare(key, lastClaimed.get(key.propertyId())) <= 0) {
+                pending.computeIfAbsent(key.propertyId(), id -> new ArrayList<>()).add(key);
+            }
+        }
+        pending.values().forEach(keys -> keys.sort(OutboxKey.ORDER));
+        return pending;
+    }
+
+    private boolean publish(final OutboxEvent event) {
+        try {
+            outboxPublisher.publish(new OutboxMessage(event.getId(), event.getCreatedAt(), AvailabilityEventDTO.builder()
+                    .type(event.getType())
+                    .id(event.getEntryId())
+                    .propertyId(event.getPropertyId())
+                    .entryType(event.getEntryType())
+                    .startDate(event.getStartDate())
+                    .endDate(event.getEndDate())
+                    .build()));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not publish outbox event {} of property {}, retrying on the next poll",
+                    event.getId(), event.getPropertyId(), e);
+            return false;
+        }
+    }
+
+    private static OutboxKey keyOf(final OutboxEvent event) {
+        return new OutboxKey(event.getId(), event.getPropertyId(), event.getPropertyVersion());
+    }
+}
@@ -0,0 +1,45 @@
+package com.code.rental.repository;
+
+import com.code.rental.controller.dto.response.BlockResponseDTO;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.domain.ArchivedAvailabilityEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ArchivedAvailabilityRepository extends JpaRepository<ArchivedAvailabilityEntry, Long> {
+
+    // copies the rows as they are, the caller deletes them from the hot table in the same transaction; the end date is
+    // checked again in case an entry was moved after its ID was picked
+    @Modifying
+    @Query("""
+                INSERT INTO ArchivedAvailabilityEntry (id, type, property, startDate, endDate, status, version,
+                    guest, guestName, guestEmail, guestPhone)
+                SELECT a.id, a.type, a.property, a.startDate, a.endDate, a.status, a.version,
+                    a.guest, a.guestName, a.guestEmail, a.guestPhone
+                FROM AvailabilityEntry a
+                WHERE a.id IN :ids AND a.endDate < :cutoff
+            """)
+    int archiveAllByIdInEndedBefore(Collection<Long> ids, LocalDate cutoff);
+
+    @Query("""
+                SELECT new com.code.rental.controller.dto.response.BlockResponseDTO(
+                    a.id, a.property.owner.id, a.property.id, a.startDate, a.endDate)
+                FROM ArchivedAvailabilityEntry a
+                WHERE a.id = :id AND a.type = 'BLOCK'
+            """)
+    Optional<BlockResponseDTO> findBlockViewById(Long id);
+
+    @Query("""
+                SELECT new com.code.rental.controller.dto.response.BookingResponseDTO(
+                    a.id, a.status, a.property.id, a.guestName, a.guestEmail, a.guestPhone,
+                    a.startDate, a.endDate, a.guest.id, a.property.owner.id)
+                FROM ArchivedAvailabilityEntry a
+                WHERE a.id = :id AND a.type = 'BOOKING'
+            """)
+    Optional<BookingResponseDTO> findBookingViewById(Long id);
+}
@@ -1,65 +1,150 @@
 package com.code.rental.repository;
 
+import com.code.rental.availability.AvailabilityEntryKey;
+import com.code.rental.availability.AvailabilityRange;
+import com.code.rental.controller.dto.response.BlockResponseDTO;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
 import com.code.rental.domain.AvailabilityEntry;
 import com.code.rental.domain.Property;
+import com.code.rental.ical.ICalendarEvent;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface AvailabilityRepository extends JpaRepository<AvailabilityEntry, Long> {
+public interface AvailabilityRepository extends JpaRepository<AvailabilityEntry, Long>, AvailabilityRepositoryCustom {
+
+    String BLOCK_VIEW = """
+                SELECT new com.code.rental.controller.dto.response.BlockResponseDTO(
+                    a.id, a.property.owner.id, a.property.id, a.startDate, a.endDate)
+                FROM AvailabilityEntry a
+            """;
+
+    String BOOKING_VIEW = """
+                SELECT new com.code.rental.controller.dto.response.BookingResponseDTO(
+                    a.id, a.status, a.property.id, a.guestName, a.guestEmail, a.guestPhone,
+                    a.startDate, a.endDate, a.guest.id, a.property.owner.id)
+                FROM AvailabilityEntry a
+            """;
 
+    // keyset condition on (startDate, id), written so the leading startDate bound is a plain range scan
+    String AFTER_CURSOR = """
+                AND a.startDate >= :afterStartDate
+                AND (a.startDate > :afterStartDate OR a.id > :afterId)
+                ORDER BY a.startDate, a.id
+            """;
+
+    String BLOCKS_OF_PROPERTY = BLOCK_VIEW + "WHERE a.property.id = :propertyId AND a.type = 'BLOCK'" + AFTER_CURSOR;
+    String BOOKINGS_OF_PROPERTY = BOOKING_VIEW + "WHERE a.property.id = :propertyId AND a.type = 'BOOKING'" + AFTER_CURSOR;
+    String BOOKINGS_OF_GUEST = BOOKING_VIEW + "WHERE a.guest.id = :guestId AND a.type = 'BOOKING'" + AFTER_CURSOR;
+
+    // two ranges overlap when each starts before the other ends; as a single pair of bounds the predicate is a range
+    // seek on idx_property_status_dates instead of three OR'd branches the planner can't combine
     @Query("""
                 SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END
                 FROM AvailabilityEntry a
                 WHERE a.property = :property
                 AND a.status = 'ACTIVE'
-                AND (
-                    (a.startDate <= :startDate AND :startDate <= a.endDate)
-                    OR (a.startDate <= :endDate AND :endDate <= a.endDate)
-                    OR (:startDate <= a.startDate AND a.endDate <= :endDate)
-                )
+                AND a.startDate <= :endDate AND a.endDate >= :startDate
             """)
     boolean hasConflict(Property property, LocalDate startDate, LocalDate endDate);
 
+    // lets writers lock the property before they load the entry
+    @Query("SELECT a.property.id FROM AvailabilityEntry a WHERE a.id = :id")
+    Optional<Long> findPropertyIdById(Long id);
+
     @Query("""
-                SELECT a FROM AvailabilityEntry a
+                SELECT new com.code.rental.availability.AvailabilityRange(a.id, a.startDate, a.endDate, a.version)
+                FROM AvailabilityEntry a
                 WHERE a.property.id = :propertyId
-                AND a.type = 'BLOCK'
+                AND a.status = 'ACTIVE'
             """)
-    List<AvailabilityEntry> findAllBlocksByPropertyId(Long propertyId);
+    List<AvailabilityRange> findActiveRangesByPropertyId(Long propertyId);
 
-    // Had to use native query because JPQL doesn't support INSERT INTO ... SELECT ... WHERE
-    @Modifying
-    @Query(value = """
-                INSERT INTO availability_entry (version, property_id, type, status, start_date, end_date, guest_id, guest_name, guest_email, guest_phone)
-                SELECT 0, :propertyId, 'BOOKING', 'ACTIVE', :startDate, :endDate, :guestId, :guestName, :guestEmail, :guestPhone
-                WHERE NOT EXISTS (
-                    SELECT 1 FROM availability_entry
-                    WHERE property_id = :propertyId
-                    AND status = 'ACTIVE'
-                    AND (
-                        (start_date <= :startDate AND :startDate <= end_date)
-                        OR (start_date <= :endDate AND :endDate <= end_date)
-                        OR (:startDate <= start_date AND end_date <= :endDate)
-                    )
-                )
-            """, nativeQuery = true)
-    int insertIfNoConflict(Long propertyId, LocalDate startDate, LocalDate endDate, Long guestId, String guestName, String guestEmail, String guestPhone);
+    @Query("""
+                SELECT new com.code.rental.availability.AvailabilityRange(a.id, a.startDate, a.endDate, a.version)
+                FROM AvailabilityEntry a
+                WHERE a.property.id = :propertyId
+                AND a.type = 'BLOCK'
+                AND a.status = 'ACTIVE'
+            """)
+    List<AvailabilityRange> findActiveBlockRangesByPropertyId(Long propertyId);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
     @Query("""
-                SELECT a FROM AvailabilityEntry a
+                SELECT new com.code.rental.ical.ICalendarEvent(a.id, a.type, a.startDate, a.endDate)
+                FROM AvailabilityEntry a
                 WHERE a.property.id = :propertyId
-                AND a.guest.id = :guestId
-                AND a.startDate = :startDate
-                AND a.endDate = :endDate
-                AND a.type = 'BOOKING'
                 AND a.status = 'ACTIVE'
+                ORDER BY a.startDate, a.id
+            """)
+    Stream<ICalendarEvent> streamActiveEventsByPropertyId(Long propertyId);
+
+    // entries past the retention window, oldest first, to be moved to the archive table
+    @Query("""
+                SELECT new com.code.rental.availability.AvailabilityEntryKey(a.id, a.property.id)
+                FROM AvailabilityEntry a
+                WHERE a.endDate < :cutoff
+                ORDER BY a.endDate, a.id
+            """)
+    List<AvailabilityEntryKey> findKeysEndedBefore(LocalDate cutoff, Limit limit);
+
+    @Query("""
+                SELECT new com.code.rental.availability.AvailabilityEntryKey(a.id, a.property.id)
+                FROM AvailabilityEntry a
+                WHERE a.id IN :ids AND a.endDate < :cutoff
             """)
-    AvailabilityEntry findSavedBooking(Long propertyId, Long guestId, LocalDate startDate, LocalDate endDate);
+    List<AvailabilityEntryKey> findKeysByIdInEndedBefore(Collection<Long> ids, LocalDate cutoff);
+
+    // bypasses the entity listeners, callers record the removal in the availability index themselves
+    @Modifying
+    @Query("DELETE FROM AvailabilityEntry a WHERE a.id IN :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    // like deleteAllByIdIn, skipping entries moved past the cutoff
+    @Modifying
+    @Query("DELETE FROM AvailabilityEntry a WHERE a.id IN :ids AND a.endDate < :cutoff")
+    int deleteAllByIdInEndedBefore(Collection<Long> ids, LocalDate cutoff);
+
+    // read-side projections: only the columns the response needs, property and users are never loaded
+
+    @Query(BLOCKS_OF_PROPERTY)
+    List<BlockResponseDTO> findBlockViewsByPropertyId(Long propertyId, LocalDate afterStartDate, Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BLOCKS_OF_PROPERTY)
+    Stream<BlockResponseDTO> streamBlockViewsByPropertyId(Long propertyId, LocalDate afterStartDate, Long afterId);
+
+    @Query(BLOCK_VIEW + "WHERE a.id = :id AND a.type = 'BLOCK'")
+    Optional<BlockResponseDTO> findBlockViewById(Long id);
+
+    @Query(BOOKING_VIEW + "WHERE a.id = :id AND a.type = 'BOOKING'")
+    Optional<BookingResponseDTO> findBookingViewById(Long id);
+
+    @Query(BOOKINGS_OF_PROPERTY)
+    List<BookingResponseDTO> findBookingViewsByPropertyId(Long propertyId, LocalDate afterStartDate, Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BOOKINGS_OF_PROPERTY)
+    Stream<BookingResponseDTO> streamBookingViewsByPropertyId(Long propertyId, LocalDate afterStartDate, Long afterId);
+
+    @Query(BOOKINGS_OF_GUEST)
+    List<BookingResponseDTO> findBookingViewsByGuestId(Long guestId, LocalDate afterStartDate, Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BOOKINGS_OF_GUEST)
+    Stream<BookingResponseDTO> streamBookingViewsByGuestId(Long guestId, LocalDate afterStartDate, Long afterId);
 
 }
@@ -0,0 +1,15 @@
+package com.code.rental.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface AvailabilityRepositoryCustom {
+
+    /**
+     * Inserts an ACTIVE booking unless an ACTIVE entry of the property overlaps the given dates, in a single statement.
+     *
+     * @return the generated ID, or empty if nothing was inserted because of a conflict
+     */
+    Optional<Long> insertBookingIfNoConflict(Long propertyId, LocalDate startDate, LocalDate endDate, Long guestId,
+                                             String guestName, String guestEmail, String guestPhone);
+}
@@ -0,0 +1,69 @@
+package com.code.rental.repository;
+
+import com.code.rental.domain.AvailabilityEntry;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class AvailabilityRepositoryCustomImpl implements AvailabilityRepositoryCustom {
+
+    // JPQL doesn't support INSERT INTO ... SELECT ... WHERE; the NOT EXISTS probe is the overlap predicate of
+    // AvailabilityRepository.hasConflict
+    static final String INSERT_BOOKING_IF_NO_CONFLICT = """
+                INSERT INTO availability_entry (id, version, property_id, type, status, start_date, end_date, guest_id, guest_name, guest_email, guest_phone)
+                SELECT :id, 0, :propertyId, 'BOOKING', 'ACTIVE', :startDate, :endDate, :guestId, :guestName, :guestEmail, :guestPhone
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM availability_entry
+                    WHERE property_id = :propertyId
+                    AND status = 'ACTIVE'
+                    AND start_date <= :endDate AND end_date >= :startDate
+                )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public Optional<Long> insertBookingIfNoConflict(final Long propertyId,
+                                                    final LocalDate startDate,
+                                                    final LocalDate endDate,
+                                                    final Long guestId,
+                                                    final String guestName,
+                                                    final String guestEmail,
+                                                    final String guestPhone) {
+        final Long id = nextId();
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("propertyId", propertyId)
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate)
+                .addValue("guestId", guestId)
+                .addValue("guestName", guestName)
+                .addValue("guestEmail", guestEmail)
+                .addValue("guestPhone", guestPhone);
+
+        final int inserted = jdbcTemplate.update(INSERT_BOOKING_IF_NO_CONFLICT, params);
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(id);
+    }
+
+    // takes the ID from the entity's own pooled sequence generator, so it never collides with the blocks of IDs
+    // Hibernate already reserved for this or other nodes
+    private Long nextId() {
+        final SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        final BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(AvailabilityEntry.class)
+                .getGenerator();
+        return (Long) generator.generate(session, null, null, EventType.INSERT);
+    }
+}
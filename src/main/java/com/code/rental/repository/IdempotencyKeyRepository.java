@@ -0,0 +1,38 @@
+package com.code.rental.repository;
+
+import com.code.rental.domain.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // it throws DataIntegrityViolationException if the key is already claimed
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (id, request_hash, expires_at) VALUES (:id, :requestHash, :expiresAt)",
+            nativeQuery = true)
+    void insertClaim(String id, String requestHash, Instant expiresAt);
+
+    @Modifying
+    @Query("""
+                UPDATE IdempotencyKey k
+                SET k.status = :status, k.location = :location, k.body = :body, k.expiresAt = :expiresAt
+                WHERE k.id = :id
+            """)
+    void complete(String id, int status, String location, String body, Instant expiresAt);
+
+    // keeps the claim of a request still running from expiring, completed keys keep their TTL
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.expiresAt = :expiresAt WHERE k.id = :id AND k.status IS NULL")
+    void renewClaim(String id, Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.expiresAt <= :now")
+    void deleteExpiredById(String id, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteAllExpired(Instant now);
+}
@@ -0,0 +1,39 @@
+package com.code.rental.repository;
+
+import com.code.rental.domain.OutboxEvent;
+import com.code.rental.outbox.OutboxKey;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.LockOptions;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // rows claimed by another relay are skipped instead of waited for (FOR UPDATE SKIP LOCKED where supported)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT o FROM OutboxEvent o ORDER BY o.id")
+    List<OutboxEvent> claim(Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.id IN :ids")
+    List<OutboxEvent> claimByIds(Collection<Long> ids);
+
+    // unlocked read, sees the events other relays have claimed but not published yet
+    @Query("""
+                SELECT new com.code.rental.outbox.OutboxKey(o.id, o.propertyId, o.propertyVersion)
+                FROM OutboxEvent o
+                WHERE o.propertyId IN :propertyIds AND o.propertyVersion <= :maxVersion
+            """)
+    List<OutboxKey> findKeys(Collection<Long> propertyIds, long maxVersion);
+}
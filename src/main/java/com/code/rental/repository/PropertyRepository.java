@@ -1,7 +1,72 @@
 package com.code.rental.repository;
 
+import com.code.rental.controller.dto.response.PropertyResponseDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.code.rental.domain.Property;
+import org.springframework.data.jpa.repository.Query;
 
-public interface PropertyRepository extends JpaRepository<Property, Long> {
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PropertyRepository extends JpaRepository<Property, Long>, PropertyRepositoryCustom {
+
+    @Query("SELECT p.availabilityVersion FROM Property p WHERE p.id = :id")
+    Optional<Long> findAvailabilityVersionById(Long id);
+
+    // the version read under the row lock stays current until the transaction ends
+    @Query(value = "SELECT availability_version FROM property WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockAvailabilityVersionById(Long id);
+
+    @Query(value = """
+            SELECT id, availability_version AS "availabilityVersion" FROM property
+            WHERE id IN :ids ORDER BY id FOR UPDATE
+            """, nativeQuery = true)
+    List<LockedProperty> lockAllByIdIn(Collection<Long> ids);
+
+    // single anti-join: the NOT EXISTS probe is answered by idx_property_status_dates for each candidate property; a
+    // slice reads one row past the page instead of counting them all, and afterId seeks past the rows already read
+    @Query("""
+            SELECT new com.code.rental.controller.dto.response.PropertyResponseDTO(
+                p.id, p.owner.id, p.name, p.description, p.location)
+            FROM Property p
+            WHERE p.id > :afterId
+            AND NOT EXISTS (
+                SELECT 1 FROM AvailabilityEntry a
+                WHERE a.property = p
+                AND a.status = com.code.rental.domain.enums.BookingStatusEnum.ACTIVE
+                AND a.startDate <= :endDate AND a.endDate >= :startDate
+            )
+            ORDER BY p.id
+            """)
+    Slice<PropertyResponseDTO> findAvailable(LocalDate startDate, LocalDate endDate, long afterId, Pageable pageable);
+
+    // same search, the location prefix seeks idx_property_search_location; a separate query because an optional
+    // (:searchLocation IS NULL OR ...) filter makes the planner scan every property instead
+    @Query("""
+            SELECT new com.code.rental.controller.dto.response.PropertyResponseDTO(
+                p.id, p.owner.id, p.name, p.description, p.location)
+            FROM Property p
+            WHERE p.searchLocation LIKE CONCAT(:searchLocation, '%')
+            AND p.id > :afterId
+            AND NOT EXISTS (
+                SELECT 1 FROM AvailabilityEntry a
+                WHERE a.property = p
+                AND a.status = com.code.rental.domain.enums.BookingStatusEnum.ACTIVE
+                AND a.startDate <= :endDate AND a.endDate >= :startDate
+            )
+            ORDER BY p.id
+            """)
+    Slice<PropertyResponseDTO> findAvailableByLocation(LocalDate startDate, LocalDate endDate, String searchLocation,
+                                                       long afterId, Pageable pageable);
+
+    interface LockedProperty {
+
+        Long getId();
+
+        Long getAvailabilityVersion();
+    }
 }
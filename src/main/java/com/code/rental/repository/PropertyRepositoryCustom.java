@@ -0,0 +1,12 @@
+package com.code.rental.repository;
+
+public interface PropertyRepositoryCustom {
+
+    /**
+     * Bumps the availability version of the property in the current transaction, which keeps its row locked until the
+     * transaction ends.
+     *
+     * @return the new version, or null if the property doesn't exist
+     */
+    Long incrementAvailabilityVersion(Long propertyId);
+}
@@ -0,0 +1,27 @@
+package com.code.rental.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@RequiredArgsConstructor
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+
+    // plain JDBC on the transaction's connection: a JPQL bulk update would flush the persistence context on every
+    // write that publishes a change
+    private static final String INCREMENT_AVAILABILITY_VERSION =
+            "UPDATE property SET availability_version = availability_version + 1 WHERE id = :id";
+    private static final String SELECT_AVAILABILITY_VERSION = "SELECT availability_version FROM property WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Long incrementAvailabilityVersion(final Long propertyId) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("id", propertyId);
+        if (jdbcTemplate.update(INCREMENT_AVAILABILITY_VERSION, params) == 0) {
+            return null;
+        }
+        // the update locked the row, no other transaction can change the version before this one ends
+        return jdbcTemplate.queryForObject(SELECT_AVAILABILITY_VERSION, params, Long.class);
+    }
+}
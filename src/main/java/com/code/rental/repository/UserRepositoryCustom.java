@@ -0,0 +1,13 @@
+package com.code.rental.repository;
+
+import com.code.rental.domain.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Looks the user up by its natural ID, answered from the second-level cache once the email was resolved before.
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,23 @@
+package com.code.rental.repository;
+
+import com.code.rental.domain.User;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    // like the derived queries, runs in a transaction of its own when called outside one: the unwrapped session of the
+    // shared EntityManager would be closed otherwise
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(final String email) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(email);
+    }
+}
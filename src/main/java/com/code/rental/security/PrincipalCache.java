@@ -0,0 +1,56 @@
+package com.code.rental.security;
+
+import com.code.rental.security.services.UserPrinciple;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated principals keyed by email, so authenticating a request does not hit the
+ * users table once the principal is warm. Hit/miss counters are published as the {@code cache.*} metrics with the tag
+ * {@code cache=principals}.
+ * <p>
+ * Entries are invalidated when the user is updated or removed through JPA (see {@link UserCacheListener}); the TTL
+ * bounds staleness for writes that bypass it.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserPrinciple> principals;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") final long maxSize,
+                          @Value("${app.security.principal-cache.ttl:5m}") final Duration ttl,
+                          final MeterRegistry meterRegistry) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    public UserPrinciple get(final String email, final Function<String, UserPrinciple> loader) {
+        return principals.get(email, loader);
+    }
+
+    public void invalidate(final String email) {
+        principals.invalidate(email);
+        // evict again once the change is visible, a concurrent request may have reloaded the old row meanwhile
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    principals.invalidate(email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.code.rental.security;
+
+import com.code.rental.domain.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached principal of every {@link User} updated or removed through JPA.
+ */
+@RequiredArgsConstructor
+@Component
+public class UserCacheListener {
+
+    // resolved lazily, the listener is created while the EntityManagerFactory is being built
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChanged(final User user) {
+        principalCache.getObject().invalidate(user.getEmail());
+    }
+}
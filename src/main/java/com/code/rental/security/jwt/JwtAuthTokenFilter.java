@@ -30,8 +30,8 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
                                     final HttpServletResponse response,
                                     final FilterChain filterChain) throws ServletException, IOException {
         String token = extractToken(request);
-        if (token != null && tokenProvider.validateJwtToken(token)) {
-            String username = tokenProvider.getUsernameFromJwtToken(token);
+        if (token != null) {
+            String username = tokenProvider.verifyJwtToken(token).getSubject();
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
             UsernamePasswordAuthenticationToken authentication
@@ -1,22 +1,37 @@
 package com.code.rental.security.jwt;
 
 import com.code.rental.security.services.UserPrinciple;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Data
 @Slf4j
@@ -32,9 +47,30 @@ public class JwtProvider {
     @Value("${app.jwt.issuer}")
     private String jwtIssuer;
 
+    // 0 disables the cache
+    @Value("${app.jwt.claims-cache.max-size:10000}")
+    private int claimsCacheSize = 10000;
+
+    // upper bound for tokens without an expiration claim
+    @Value("${app.jwt.claims-cache.max-ttl-seconds:300}")
+    private int claimsCacheMaxTtl = 300;
+
+    // key, parser and verified tokens derived from the current secret, rebuilt only if the secret changes
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile Keyring keyring;
+
+    // not a monitor: a virtual thread blocked on it would pin its carrier
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final ReentrantLock keyringLock = new ReentrantLock();
+
     public String generateJwtToken(final Authentication authentication) {
         UserPrinciple userPrincipal = (UserPrinciple) authentication.getPrincipal();
-        SecretKey secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
 
         return Jwts.builder()
                 .setHeaderParam("typ", "JWT")
@@ -42,27 +78,47 @@ public class JwtProvider {
                 .setSubject(userPrincipal.getEmail())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpiration * 1000L))
-                .signWith(secretKey, SignatureAlgorithm.HS512)
+                .signWith(keyring().key(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
     public String createToken(final String username) {
-        SecretKey secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .signWith(secretKey, SignatureAlgorithm.HS512)
+                .signWith(keyring().key(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    boolean validateJwtToken(final String token) {
+    /**
+     * Verifies the token and returns its claims. The signature of a given token is checked once; until it expires, the
+     * same token is answered from a small cache keyed by its SHA-256 digest. The returned claims are shared and must
+     * not be modified.
+     */
+    Claims verifyJwtToken(final String token) {
+        if (token == null || token.isBlank()) {
+            throw new SecurityException("JWT token is missing");
+        }
+
+        final Keyring current = keyring();
+        if (current.verified() == null) {
+            return parse(current.parser(), token);
+        }
+
+        final ByteBuffer digest = digest(token);
+        final Claims cached = current.verified().getIfPresent(digest);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+
+        final Claims claims = parse(current.parser(), token);
+        current.verified().put(digest, claims);
+        return claims;
+    }
+
+    private static Claims parse(final JwtParser parser, final String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             throw new SecurityException("JWT token expired");
         } catch (UnsupportedJwtException e) {
@@ -76,13 +132,72 @@ public class JwtProvider {
         }
     }
 
-    String getUsernameFromJwtToken(final String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody().getSubject();
+    private Keyring keyring() {
+        Keyring current = keyring;
+        if (current == null || !current.secret().equals(jwtSecret)) {
+            keyringLock.lock();
+            try {
+                current = keyring;
+                if (current == null || !current.secret().equals(jwtSecret)) {
+                    current = newKeyring(jwtSecret);
+                    keyring = current;
+                }
+            } finally {
+                keyringLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private Keyring newKeyring(final String secret) {
+        final SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+        if (claimsCacheSize <= 0) {
+            return new Keyring(secret, key, parser, null);
+        }
+
+        final long maxTtlNanos = TimeUnit.SECONDS.toNanos(claimsCacheMaxTtl);
+        final Cache<ByteBuffer, Claims> verified = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(final ByteBuffer digest, final Claims claims, final long currentTime) {
+                        if (claims.getExpiration() == null) {
+                            return maxTtlNanos;
+                        }
+                        final long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return Math.max(0, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remaining)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final ByteBuffer digest, final Claims claims, final long currentTime,
+                                                  final long currentDuration) {
+                        return expireAfterCreate(digest, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(final ByteBuffer digest, final Claims claims, final long currentTime,
+                                                final long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        return new Keyring(secret, key, parser, verified);
+    }
+
+    private static boolean isExpired(final Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().getTime() <= System.currentTimeMillis();
+    }
+
+    private static ByteBuffer digest(final String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Keyring(String secret, SecretKey key, JwtParser parser, Cache<ByteBuffer, Claims> verified) {
     }
 
 }
@@ -1,28 +1,31 @@
 package com.code.rental.security.jwt;
 
 import com.code.rental.domain.User;
-import com.code.rental.repository.UserRepository;
 import com.code.rental.security.services.UserPrinciple;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 
-@RequiredArgsConstructor
 @Service
 public class JwtService {
 
-    private final UserRepository userRepository;
-
-    @Transactional(readOnly = true)
+    /**
+     * The user the request was authenticated as. Built from the principal resolved (and cached) by the auth filter, so
+     * it costs no query; the returned user is detached and only carries the columns of the principal.
+     */
     public User getLoggedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = ((UserPrinciple) authentication.getPrincipal()).getEmail();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new HttpClientErrorException(HttpStatus.FORBIDDEN, "Invalid token"));
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrinciple principal)) {
+            throw new HttpClientErrorException(HttpStatus.FORBIDDEN, "Invalid token");
+        }
+        return User.builder()
+                .id(principal.getId())
+                .name(principal.getName())
+                .email(principal.getEmail())
+                .password(principal.getPassword())
+                .build();
     }
 
 }
@@ -3,9 +3,8 @@ package com.code.rental.service;
 import com.code.rental.controller.dto.request.LoginDTO;
 import com.code.rental.controller.dto.response.LoginResponseDTO;
 import com.code.rental.domain.User;
-import com.code.rental.exception.ResourceNotFoundException;
-import com.code.rental.repository.UserRepository;
 import com.code.rental.security.jwt.JwtProvider;
+import com.code.rental.security.services.UserPrinciple;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,7 +18,6 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtProvider jwtProvider;
-    private final UserRepository userRepository;
 
     public LoginResponseDTO authenticate(final LoginDTO loginDTO) {
         Authentication authentication = authenticationManager.authenticate(
@@ -27,15 +25,27 @@ public class AuthService {
                         loginDTO.email(),
                         loginDTO.password()));
 
+        return login(authentication);
+    }
+
+    /**
+     * Logs in a user whose credentials were just checked by the caller (e.g. right after signup), without hashing the
+     * password a second time.
+     */
+    public LoginResponseDTO authenticated(final User user) {
+        UserPrinciple principal = UserPrinciple.build(user);
+        return login(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private LoginResponseDTO login(final Authentication authentication) {
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        User user = userRepository.findByEmail(loginDTO.email())
-                .orElseThrow(() -> new ResourceNotFoundException(User.class, loginDTO.email()));
+        UserPrinciple principal = (UserPrinciple) authentication.getPrincipal();
         return LoginResponseDTO.builder()
                 .accessToken(jwtProvider.generateJwtToken(authentication))
-                .userId(user.getId())
-                .name(user.getName())
-                .email(user.getEmail())
+                .userId(principal.getId())
+                .name(principal.getName())
+                .email(principal.getEmail())
                 .build();
     }
 
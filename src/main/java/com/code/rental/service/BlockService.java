@@ -1,35 +1,92 @@
 package com.code.rental.service;
 
+import com.code.rental.availability.AvailabilityEventPublisher;
+import com.code.rental.availability.AvailabilityIndex;
+import com.code.rental.availability.AvailabilityRange;
+import com.code.rental.availability.lock.PropertyLockManager;
 import com.code.rental.controller.dto.request.BlockRequestDTO;
+import com.code.rental.controller.dto.request.KeysetCursor;
+import com.code.rental.controller.dto.response.BlockBatchItemDTO;
+import com.code.rental.controller.dto.response.BlockBatchResponseDTO;
 import com.code.rental.controller.dto.response.BlockResponseDTO;
+import com.code.rental.controller.dto.response.CalendarImportResponseDTO;
+import com.code.rental.controller.dto.response.DateRangeDTO;
 import com.code.rental.domain.AvailabilityEntry;
 import com.code.rental.domain.AvailabilityEntryFactory;
 import com.code.rental.domain.Property;
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
 import com.code.rental.exception.ConflictException;
 import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.ical.ICalendarReader;
+import com.code.rental.repository.ArchivedAvailabilityRepository;
 import com.code.rental.repository.AvailabilityRepository;
 import com.code.rental.repository.PropertyRepository;
 import com.code.rental.security.jwt.JwtService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
 public class BlockService {
 
+    // a multiple of hibernate.jdbc.batch_size, keeps the persistence context small during bulk inserts
+    private static final int BULK_FLUSH_SIZE = 1000;
+
     private final PropertyRepository propertyRepository;
     private final AvailabilityRepository availabilityRepository;
+    private final ArchivedAvailabilityRepository archivedAvailabilityRepository;
     private final JwtService jwtService;
+    private final AvailabilityIndex availabilityIndex;
+    private final PropertyLockManager propertyLockManager;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final AvailabilityEventPublisher availabilityEventPublisher;
 
     @Transactional(readOnly = true)
     public List<BlockResponseDTO> getBlocksByPropertyId(final Long propertyId) {
-        return availabilityRepository.findAllBlocksByPropertyId(propertyId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return getBlocksByPropertyId(propertyId, KeysetCursor.START, KeysetCursor.DEFAULT_LIMIT);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BlockResponseDTO> getBlocksByPropertyId(final Long propertyId, final KeysetCursor after, final int limit) {
+        KeysetCursor.checkLimit(limit);
+        return availabilityRepository.findBlockViewsByPropertyId(propertyId, after.startDate(), after.id(), Limit.of(limit));
+    }
+
+    /**
+     * Hands every block after the cursor to the consumer while reading them from a forward-only cursor.
+     */
+    @Transactional(readOnly = true)
+    public void streamBlocksByPropertyId(final Long propertyId, final KeysetCursor after,
+                                         final Consumer<BlockResponseDTO> consumer) {
+        try (Stream<BlockResponseDTO> blocks = availabilityRepository.streamBlockViewsByPropertyId(
+                propertyId, after.startDate(), after.id())) {
+            blocks.forEach(consumer);
+        }
     }
 
     @Transactional
@@ -38,12 +95,14 @@ public class BlockService {
                 .orElseThrow(() -> new IllegalArgumentException("Property not found with ID " + blockDTO.getPropertyId()));
 
         if (!property.getOwner().getId().equals(jwtService.getLoggedUser().getId())) {
-            throw new ConflictException("You can't block a property that you don't own");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't block a property that you don't own");
         }
 
-        final boolean hasConflict = availabilityRepository.hasConflict(property, blockDTO.getStartDate(), blockDTO.getEndDate());
+        propertyLockManager.lock(property.getId());
+        final boolean hasConflict = availabilityIndex.hasConflict(property.getId(), blockDTO.getStartDate(), blockDTO.getEndDate());
         if (hasConflict) {
-            throw new ConflictException("Cannot block property for the selected dates");
+            throw new ConflictException(ConflictReasonEnum.UNAVAILABLE, "Cannot block property for the selected dates",
+                    property.getId());
         }
 
         final AvailabilityEntry block = AvailabilityEntryFactory.createBlock(
@@ -51,40 +110,250 @@ public class BlockService {
                 blockDTO.getStartDate(),
                 blockDTO.getEndDate());
         final AvailabilityEntry savedBlock = availabilityRepository.save(block);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.CREATED, savedBlock);
         return mapToDTO(savedBlock);
     }
 
+    /**
+     * Creates many blocks in one transaction and reports the outcome of each one instead of failing the whole batch.
+     * <p>
+     * Ownership is checked once per property, and the owned properties are locked together before any block is
+     * checked, in the order the lock manager defines so concurrent batches cannot deadlock. The blocks of a property are
+     * swept in start date order: a block is rejected if it overlaps an ACTIVE entry or a block accepted before it in
+     * the sweep, so of two overlapping blocks of the batch the one starting first wins. Accepted blocks are inserted in
+     * JDBC batches.
+     */
+    @Transactional
+    public BlockBatchResponseDTO createBlocks(final List<BlockRequestDTO> blockDTOs) {
+        final BlockBatchItemDTO[] results = new BlockBatchItemDTO[blockDTOs.size()];
+        final Map<Long, List<Integer>> indexesByProperty = new TreeMap<>();
+        for (int i = 0; i < blockDTOs.size(); i++) {
+            final String violation = violationOf(blockDTOs.get(i));
+            if (violation != null) {
+                results[i] = result(i, blockDTOs.get(i), BlockBatchItemDTO.Status.INVALID, null, violation);
+            } else {
+                indexesByProperty.computeIfAbsent(blockDTOs.get(i).getPropertyId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        final Long userId = jwtService.getLoggedUser().getId();
+        final Map<Long, Property> properties = propertyRepository.findAllById(indexesByProperty.keySet()).stream()
+                .collect(Collectors.toMap(Property::getId, Function.identity()));
+        propertyLockManager.lockAll(properties.values().stream()
+                .filter(property -> property.getOwner().getId().equals(userId))
+                .map(Property::getId)
+                .toList());
+        final Comparator<Integer> byDates = Comparator
+                .comparing((Integer i) -> blockDTOs.get(i).getStartDate())
+                .thenComparing(i -> blockDTOs.get(i).getEndDate());
+
+        int created = 0;
+        for (final Map.Entry<Long, List<Integer>> group : indexesByProperty.entrySet()) {
+            final Property property = properties.get(group.getKey());
+            final List<Integer> indexes = group.getValue();
+            if (property == null || !property.getOwner().getId().equals(userId)) {
+                final BlockBatchItemDTO.Status status = property == null
+                        ? BlockBatchItemDTO.Status.NOT_FOUND : BlockBatchItemDTO.Status.NOT_OWNER;
+                final String message = property == null
+                        ? "Property not found with ID " + group.getKey() : "You can't block a property that you don't own";
+                indexes.forEach(i -> results[i] = result(i, blockDTOs.get(i), status, null, message));
+                continue;
+            }
+
+            // stable sort, blocks with the same dates keep the request order
+            indexes.sort(byDates);
+            LocalDate acceptedUntil = null;
+            for (final int i : indexes) {
+                final BlockRequestDTO blockDTO = blockDTOs.get(i);
+                if (availabilityIndex.hasConflict(property.getId(), blockDTO.getStartDate(), blockDTO.getEndDate())
+                        || (acceptedUntil != null && !blockDTO.getStartDate().isAfter(acceptedUntil))) {
+                    results[i] = result(i, blockDTO, BlockBatchItemDTO.Status.CONFLICT, null,
+                            "Cannot block property for the selected dates");
+                    continue;
+                }
+
+                final AvailabilityEntry block = AvailabilityEntryFactory.createBlock(
+                        property,
+                        blockDTO.getStartDate(),
+                        blockDTO.getEndDate());
+                entityManager.persist(block);
+                availabilityEventPublisher.publish(AvailabilityEventTypeEnum.CREATED, block);
+                results[i] = result(i, blockDTO, BlockBatchItemDTO.Status.CREATED, block.getId(), null);
+                acceptedUntil = blockDTO.getEndDate();
+
+                if (++created % BULK_FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+
+        return BlockBatchResponseDTO.builder()
+                .created(created)
+                .rejected(blockDTOs.size() - created)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Makes the blocks of the property match the events of an iCalendar feed: blocks whose dates are in the feed are
+     * kept, new dates are blocked and blocks that are no longer in the feed are removed. Bookings are never touched; an
+     * event overlapping a booking, a kept block or an earlier event of the feed is reported as a conflict instead.
+     * <p>
+     * The feed is parsed while it is read. Apart from the existing blocks, only the dates of the new events are held,
+     * packed in a {@code long[]}.
+     */
+    @Transactional
+    public CalendarImportResponseDTO importCalendar(final Long propertyId, final Reader feed) throws IOException {
+        final Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new ResourceNotFoundException(Property.class, propertyId));
+        if (!property.getOwner().getId().equals(jwtService.getLoggedUser().getId())) {
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't block a property that you don't own");
+        }
+        propertyLockManager.lock(propertyId);
+
+        final Map<Long, Long> blockIdByRange = new HashMap<>();
+        for (final AvailabilityRange block : availabilityRepository.findActiveBlockRangesByPropertyId(propertyId)) {
+            blockIdByRange.put(pack(block.startDate(), block.endDate()), block.id());
+        }
+        final Set<Long> keptIds = new HashSet<>();
+        final PackedRanges added = new PackedRanges();
+        ICalendarReader.readEvents(feed, (startDate, endDate) -> {
+            final long range = pack(startDate, endDate);
+            final Long blockId = blockIdByRange.get(range);
+            if (blockId != null) {
+                keptIds.add(blockId);
+            } else {
+                added.add(range);
+            }
+        });
+
+        final Map<Long, Long> removedRanges = new HashMap<>();
+        blockIdByRange.forEach((range, id) -> {
+            if (!keptIds.contains(id)) {
+                removedRanges.put(id, range);
+            }
+        });
+        final Set<Long> removedIds = removedRanges.keySet();
+
+        // sorted by start then end day, so each event only has to be checked against the last accepted one
+        final long[] ranges = added.sorted();
+        final List<DateRangeDTO> conflicts = new ArrayList<>();
+        int created = 0;
+        long acceptedUntil = Long.MIN_VALUE;
+        for (int i = 0; i < ranges.length; i++) {
+            if (i > 0 && ranges[i] == ranges[i - 1]) {
+                continue;
+            }
+            final LocalDate startDate = LocalDate.ofEpochDay(ranges[i] >> 32);
+            final LocalDate endDate = LocalDate.ofEpochDay((int) ranges[i]);
+            if (startDate.toEpochDay() <= acceptedUntil
+                    || availabilityIndex.hasConflictExcluding(propertyId, startDate, endDate, removedIds::contains)) {
+                conflicts.add(new DateRangeDTO(startDate, endDate));
+                continue;
+            }
+            final AvailabilityEntry block = AvailabilityEntryFactory.createBlock(property, startDate, endDate);
+            entityManager.persist(block);
+            availabilityEventPublisher.publish(AvailabilityEventTypeEnum.CREATED, block);
+            acceptedUntil = endDate.toEpochDay();
+            if (++created % BULK_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        final List<Long> removed = new ArrayList<>(removedIds);
+        for (int from = 0; from < removed.size(); from += BULK_FLUSH_SIZE) {
+            availabilityRepository.deleteAllByIdIn(removed.subList(from, Math.min(from + BULK_FLUSH_SIZE, removed.size())));
+        }
+        removed.forEach(id -> {
+            availabilityIndex.recordRemoved(id, propertyId);
+            final long range = removedRanges.get(id);
+            availabilityEventPublisher.publish(AvailabilityEventTypeEnum.DELETED, id, propertyId, EntryTypeEnum.BLOCK,
+                    LocalDate.ofEpochDay(range >> 32), LocalDate.ofEpochDay((int) range));
+        });
+
+        return CalendarImportResponseDTO.builder()
+                .created(created)
+                .unchanged(keptIds.size())
+                .removed(removed.size())
+                .conflicts(conflicts)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
     public BlockResponseDTO getBlockById(final Long id) {
-        final AvailabilityEntry block = availabilityRepository.findById(id)
+        // past stays may have been moved to the archive
+        return availabilityRepository.findBlockViewById(id)
+                .or(() -> archivedAvailabilityRepository.findBlockViewById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Block", id));
-        return mapToDTO(block);
     }
 
     @Transactional
     public BlockResponseDTO updateBlock(final Long id, final BlockRequestDTO blockDTO) {
-        final AvailabilityEntry block = availabilityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Block", id));
+        final AvailabilityEntry block = lockedEntry(id);
 
         if (!block.getProperty().getOwner().equals(jwtService.getLoggedUser())) {
-            throw new ConflictException("You can't update a block that you don't own");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't update a block that you don't own");
+        }
+
+        if (availabilityIndex.hasConflictExcluding(block.getProperty().getId(),
+                blockDTO.getStartDate(), blockDTO.getEndDate(), block.getId())) {
+            throw new ConflictException(ConflictReasonEnum.UNAVAILABLE, "Cannot block property for the selected dates",
+                    block.getProperty().getId());
         }
 
         block.setStartDate(blockDTO.getStartDate());
         block.setEndDate(blockDTO.getEndDate());
         final AvailabilityEntry savedBlock = availabilityRepository.save(block);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.UPDATED, savedBlock);
         return mapToDTO(savedBlock);
     }
 
     @Transactional
     public void deleteBlock(final Long id) {
-        final AvailabilityEntry block = availabilityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Block", id));
+        final AvailabilityEntry block = lockedEntry(id);
 
         if (!block.getProperty().getOwner().equals(jwtService.getLoggedUser())) {
-            throw new ConflictException("You can't delete a block that you don't own");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't delete a block that you don't own");
         }
 
         availabilityRepository.delete(block);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.DELETED, block);
+    }
+
+    // loads the block once its property is locked, so the checks that follow see the last committed write to it
+    private AvailabilityEntry lockedEntry(final Long id) {
+        final Long propertyId = availabilityRepository.findPropertyIdById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Block", id));
+        propertyLockManager.lock(propertyId);
+        return availabilityRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Block", id));
+    }
+
+    private static long pack(final LocalDate startDate, final LocalDate endDate) {
+        return (startDate.toEpochDay() << 32) | (endDate.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    private String violationOf(final BlockRequestDTO blockDTO) {
+        if (blockDTO == null) {
+            return "Block is required";
+        }
+        final Set<ConstraintViolation<BlockRequestDTO>> violations = validator.validate(blockDTO);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static BlockBatchItemDTO result(final int index, final BlockRequestDTO blockDTO,
+                                            final BlockBatchItemDTO.Status status, final Long id, final String message) {
+        return BlockBatchItemDTO.builder()
+                .index(index)
+                .status(status)
+                .id(id)
+                .propertyId(blockDTO == null ? null : blockDTO.getPropertyId())
+                .startDate(blockDTO == null ? null : blockDTO.getStartDate())
+                .endDate(blockDTO == null ? null : blockDTO.getEndDate())
+                .message(message)
+                .build();
     }
 
     private BlockResponseDTO mapToDTO(final AvailabilityEntry block) {
@@ -96,4 +365,23 @@ public class BlockService {
                 .endDate(block.getEndDate())
                 .build();
     }
+
+    private static final class PackedRanges {
+
+        private long[] ranges = new long[64];
+        private int size;
+
+        void add(final long range) {
+            if (size == ranges.length) {
+                ranges = Arrays.copyOf(ranges, size * 2);
+            }
+            ranges[size++] = range;
+        }
+
+        long[] sorted() {
+            final long[] sorted = Arrays.copyOf(ranges, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
 }
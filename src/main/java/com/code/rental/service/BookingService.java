@@ -1,67 +1,134 @@
 package com.code.rental.service;
 
+import com.code.rental.availability.AvailabilityEventPublisher;
+import com.code.rental.availability.AvailabilityHold;
+import com.code.rental.availability.AvailabilityHolds;
+import com.code.rental.availability.AvailabilityIndex;
+import com.code.rental.availability.lock.PropertyLockManager;
 import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.request.KeysetCursor;
 import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.controller.dto.response.HoldResponseDTO;
 import com.code.rental.domain.AvailabilityEntry;
 import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
 import com.code.rental.domain.enums.BookingStatusEnum;
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import com.code.rental.exception.BadRequestException;
 import com.code.rental.exception.ConflictException;
 import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.repository.ArchivedAvailabilityRepository;
 import com.code.rental.repository.AvailabilityRepository;
 import com.code.rental.repository.PropertyRepository;
 import com.code.rental.security.jwt.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 @RequiredArgsConstructor
 @Service
 public class BookingService {
 
     private final PropertyRepository propertyRepository;
     private final AvailabilityRepository availabilityRepository;
+    private final ArchivedAvailabilityRepository archivedAvailabilityRepository;
     private final JwtService jwtService;
+    private final AvailabilityIndex availabilityIndex;
+    private final PropertyLockManager propertyLockManager;
+    private final AvailabilityEventPublisher availabilityEventPublisher;
+    private final AvailabilityHolds availabilityHolds;
 
     @Transactional
     public BookingResponseDTO createBooking(final BookingRequestDTO bookingDTO) {
-        final Property property = propertyRepository.findById(bookingDTO.getPropertyId())
-                .orElseThrow(() -> new IllegalArgumentException("Property not found with ID " + bookingDTO.getPropertyId()));
+        final User guest = jwtService.getLoggedUser();
+        final Property property = lockAvailableProperty(bookingDTO, guest);
 
-        if (property.getOwner().getId().equals(jwtService.getLoggedUser().getId())) {
-            throw new ConflictException("You can't book your own property");
-        }
+        // it can throw DataIntegrityViolationException if there is a conflict due a race condition
+        final Long id = availabilityRepository.insertBookingIfNoConflict(
+                        property.getId(),
+                        bookingDTO.getStartDate(),
+                        bookingDTO.getEndDate(),
+                        guest.getId(),
+                        bookingDTO.getGuestName(),
+                        bookingDTO.getGuestEmail(),
+                        bookingDTO.getGuestPhone())
+                .orElseThrow(() -> new ConflictException(ConflictReasonEnum.RACE_LOST,
+                        "Property is not available for the selected dates", property.getId()));
 
-        final boolean hasConflict = availabilityRepository.hasConflict(property,
+        // the native insert bypasses the entity listener
+        availabilityIndex.recordInserted(id, property.getId(), bookingDTO.getStartDate(), bookingDTO.getEndDate());
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.CREATED, id, property.getId(), EntryTypeEnum.BOOKING,
                 bookingDTO.getStartDate(), bookingDTO.getEndDate());
-        if (hasConflict) {
-            throw new ConflictException("Property is not available for the selected dates");
-        }
 
-        // it can throw DataIntegrityViolationException if there is a conflict due a race condition
-        availabilityRepository.insertIfNoConflict(
-                bookingDTO.getPropertyId(),
-                bookingDTO.getStartDate(),
-                bookingDTO.getEndDate(),
-                jwtService.getLoggedUser().getId(),
-                bookingDTO.getGuestName(),
-                bookingDTO.getGuestEmail(),
-                bookingDTO.getGuestPhone());
-
-        return mapToDTO(availabilityRepository.findSavedBooking(
-                bookingDTO.getPropertyId(),
-                jwtService.getLoggedUser().getId(),
-                bookingDTO.getStartDate(),
-                bookingDTO.getEndDate()
-        ));
+        return BookingResponseDTO.builder()
+                .id(id)
+                .status(BookingStatusEnum.ACTIVE)
+                .propertyId(property.getId())
+                .guestId(guest.getId())
+                .guestName(bookingDTO.getGuestName())
+                .guestEmail(bookingDTO.getGuestEmail())
+                .guestPhone(bookingDTO.getGuestPhone())
+                .startDate(bookingDTO.getStartDate())
+                .endDate(bookingDTO.getEndDate())
+                .ownerId(property.getOwner().getId())
+                .build();
+    }
+
+    /**
+     * Keeps the dates of a booking off the market for {@code app.availability.holds.ttl} without writing anything, so
+     * the guest can check out; {@link #confirmHold(UUID)} then turns the hold into the booking.
+     */
+    @Transactional
+    public HoldResponseDTO holdBooking(final BookingRequestDTO bookingDTO) {
+        final User guest = jwtService.getLoggedUser();
+        lockAvailableProperty(bookingDTO, guest);
+
+        final AvailabilityHold hold = availabilityHolds.hold(guest.getId(), bookingDTO);
+        return HoldResponseDTO.builder()
+                .id(hold.id())
+                .propertyId(hold.propertyId())
+                .guestId(hold.guestId())
+                .startDate(bookingDTO.getStartDate())
+                .endDate(bookingDTO.getEndDate())
+                .expiresAt(hold.expiresAt())
+                .build();
+    }
+
+    @Transactional
+    public BookingResponseDTO confirmHold(final UUID id) {
+        final AvailabilityHold hold = getOwnHold(id, "confirm");
+
+        propertyLockManager.lock(hold.propertyId());
+        // the hold is put back if the booking fails, unless it has expired meanwhile
+        availabilityHolds.take(id).orElseThrow(() -> new ResourceNotFoundException(AvailabilityHold.class, id.toString()));
+        return createBooking(hold.booking());
+    }
+
+    public void releaseHold(final UUID id) {
+        getOwnHold(id, "release");
+        availabilityHolds.release(id);
     }
 
     @Transactional
     public BookingResponseDTO updateBooking(final Long id, final BookingRequestDTO bookingDTO) {
-        final AvailabilityEntry booking = availabilityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+        final AvailabilityEntry booking = lockedEntry(id, "Booking");
 
         if (!booking.getGuest().equals(jwtService.getLoggedUser())) {
-            throw new ConflictException("You can't update a booking that you didn't create");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't update a booking that you didn't create");
+        }
+
+        if (booking.getStatus() == BookingStatusEnum.ACTIVE && availabilityIndex.hasConflictExcluding(
+                booking.getProperty().getId(), bookingDTO.getStartDate(), bookingDTO.getEndDate(), booking.getId())) {
+            throw new ConflictException(ConflictReasonEnum.UNAVAILABLE, "Property is not available for the selected dates",
+                    booking.getProperty().getId());
         }
 
         booking.setGuestName(bookingDTO.getGuestName());
@@ -71,56 +138,166 @@ public class BookingService {
         booking.setEndDate(bookingDTO.getEndDate());
 
         final AvailabilityEntry savedBooking = availabilityRepository.save(booking);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.UPDATED, savedBooking);
         return mapToDTO(savedBooking);
     }
 
     @Transactional(readOnly = true)
     public BookingResponseDTO getBookingById(final Long id) {
-        final AvailabilityEntry booking = availabilityRepository.findById(id)
+        // past stays may have been moved to the archive
+        return availabilityRepository.findBookingViewById(id)
+                .or(() -> archivedAvailabilityRepository.findBookingViewById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+    }
 
-        return mapToDTO(booking);
+    /**
+     * Bookings of a property (for its owner) or of a guest (for that guest), ordered by start date.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingResponseDTO> getBookings(final Long propertyId, final Long guestId,
+                                                final KeysetCursor after, final int limit) {
+        KeysetCursor.checkLimit(limit);
+        checkCanListBookings(propertyId, guestId);
+
+        if (propertyId != null) {
+            return availabilityRepository.findBookingViewsByPropertyId(propertyId, after.startDate(), after.id(), Limit.of(limit));
+        }
+        return availabilityRepository.findBookingViewsByGuestId(guestId, after.startDate(), after.id(), Limit.of(limit));
+    }
+
+    /**
+     * Same listing as {@link #getBookings}, handed to the consumer while reading from a forward-only cursor.
+     */
+    @Transactional(readOnly = true)
+    public void streamBookings(final Long propertyId, final Long guestId, final KeysetCursor after,
+                               final Consumer<BookingResponseDTO> consumer) {
+        checkCanListBookings(propertyId, guestId);
+
+        try (Stream<BookingResponseDTO> bookings = propertyId != null
+                ? availabilityRepository.streamBookingViewsByPropertyId(propertyId, after.startDate(), after.id())
+                : availabilityRepository.streamBookingViewsByGuestId(guestId, after.startDate(), after.id())) {
+            bookings.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void checkCanListBookings(final Long propertyId, final Long guestId) {
+        listedProperty(propertyId, guestId);
+    }
+
+    /**
+     * Availability version of the property whose bookings are listed, or {@code null} when listing the bookings of a
+     * guest, which span many properties. Checks the logged user may list them first.
+     */
+    @Transactional(readOnly = true)
+    public Long getBookingsVersion(final Long propertyId, final Long guestId) {
+        final Property property = listedProperty(propertyId, guestId);
+        if (property == null) {
+            return null;
+        }
+        return propertyRepository.findAvailabilityVersionById(property.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(Property.class, propertyId));
+    }
+
+    private Property listedProperty(final Long propertyId, final Long guestId) {
+        if ((propertyId == null) == (guestId == null)) {
+            throw new BadRequestException("Exactly one of propertyId or guestId is required");
+        }
+
+        final User loggedUser = jwtService.getLoggedUser();
+        if (guestId != null) {
+            if (!guestId.equals(loggedUser.getId())) {
+                throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't list bookings of another guest");
+            }
+            return null;
+        }
+        final Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new ResourceNotFoundException(Property.class, propertyId));
+        if (!property.getOwner().getId().equals(loggedUser.getId())) {
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER,
+                    "You can't list bookings of a property that you don't own");
+        }
+        return property;
     }
 
     @Transactional
     public void cancelBooking(final Long id) {
-        final AvailabilityEntry booking = availabilityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+        final AvailabilityEntry booking = lockedEntry(id, "Booking");
 
         if (!booking.getGuest().equals(jwtService.getLoggedUser())) {
-            throw new ConflictException("You can't cancel a booking that you didn't create");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't cancel a booking that you didn't create");
         }
 
         booking.setStatus(BookingStatusEnum.CANCELED);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.CANCELED, booking);
     }
 
     @Transactional
     public void reactiveBooking(final Long id) {
-        final AvailabilityEntry booking = availabilityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+        final AvailabilityEntry booking = lockedEntry(id, "Booking");
 
         if (!booking.getGuest().getId().equals(jwtService.getLoggedUser().getId())) {
-            throw new ConflictException("You can't reactive a booking that you didn't create");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't reactive a booking that you didn't create");
         }
 
-        final boolean hasConflict = availabilityRepository.hasConflict(booking.getProperty(),
+        final boolean hasConflict = availabilityIndex.hasConflict(booking.getProperty().getId(),
                 booking.getStartDate(), booking.getEndDate());
         if (hasConflict) {
-            throw new ConflictException("Property is not available for the selected dates");
+            throw new ConflictException(ConflictReasonEnum.UNAVAILABLE, "Property is not available for the selected dates",
+                    booking.getProperty().getId());
         }
         booking.setStatus(BookingStatusEnum.ACTIVE);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.REBOOKED, booking);
     }
 
     @Transactional
     public void deleteBooking(final Long id) {
-        final AvailabilityEntry booking = availabilityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+        final AvailabilityEntry booking = lockedEntry(id, "Booking");
 
         if (!booking.getGuest().equals(jwtService.getLoggedUser())) {
-            throw new ConflictException("You can't delete a booking that you didn't create");
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't delete a booking that you didn't create");
         }
 
         availabilityRepository.delete(booking);
+        availabilityEventPublisher.publish(AvailabilityEventTypeEnum.DELETED, booking);
+    }
+
+    // locks the property for the guest to book it, if the dates are still available
+    private Property lockAvailableProperty(final BookingRequestDTO bookingDTO, final User guest) {
+        final Property property = propertyRepository.findById(bookingDTO.getPropertyId())
+                .orElseThrow(() -> new IllegalArgumentException("Property not found with ID " + bookingDTO.getPropertyId()));
+
+        if (property.getOwner().getId().equals(guest.getId())) {
+            throw new ConflictException(ConflictReasonEnum.OWN_PROPERTY, "You can't book your own property");
+        }
+
+        propertyLockManager.lock(property.getId());
+
+        final boolean hasConflict = availabilityIndex.hasConflict(property.getId(),
+                bookingDTO.getStartDate(), bookingDTO.getEndDate());
+        if (hasConflict) {
+            throw new ConflictException(ConflictReasonEnum.UNAVAILABLE, "Property is not available for the selected dates",
+                    property.getId());
+        }
+        return property;
+    }
+
+    // loads the entry once its property is locked, so the checks that follow see the last committed write to it
+    private AvailabilityEntry lockedEntry(final Long id, final String resource) {
+        final Long propertyId = availabilityRepository.findPropertyIdById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(resource, id));
+        propertyLockManager.lock(propertyId);
+        return availabilityRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(resource, id));
+    }
+
+    private AvailabilityHold getOwnHold(final UUID id, final String action) {
+        final AvailabilityHold hold = availabilityHolds.get(id)
+                .orElseThrow(() -> new ResourceNotFoundException(AvailabilityHold.class, id.toString()));
+        if (!hold.guestId().equals(jwtService.getLoggedUser().getId())) {
+            throw new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't " + action + " a hold that you didn't place");
+        }
+        return hold;
     }
 
     private BookingResponseDTO mapToDTO(final AvailabilityEntry booking) {
@@ -0,0 +1,149 @@
+package com.code.rental.service;
+
+import com.code.rental.availability.AvailabilityIndex;
+import com.code.rental.controller.dto.request.PropertyRequestDTO;
+import com.code.rental.controller.dto.response.BatchCreatedResponseDTO;
+import com.code.rental.controller.dto.response.CalendarResponseDTO;
+import com.code.rental.controller.dto.response.DateRangeDTO;
+import com.code.rental.controller.dto.response.PageResponseDTO;
+import com.code.rental.controller.dto.response.PropertyResponseDTO;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.exception.BadRequestException;
+import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.ical.ICalendarEvent;
+import com.code.rental.repository.AvailabilityRepository;
+import com.code.rental.repository.PropertyRepository;
+import com.code.rental.security.jwt.JwtService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@Service
+public class PropertyService {
+
+    private static final int MAX_CALENDAR_DAYS = 3 * 366;
+    private static final int MAX_PAGE_SIZE = 100;
+    // a multiple of hibernate.jdbc.batch_size, keeps the persistence context small during bulk inserts
+    private static final int BULK_FLUSH_SIZE = 1000;
+
+    private final PropertyRepository propertyRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final JwtService jwtService;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public PageResponseDTO<PropertyResponseDTO> getAvailableProperties(final LocalDate from, final LocalDate to,
+                                                                       final String location, final Long after,
+                                                                       final int page, final int size) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("From date must be before or the same day as to date");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be positive and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // properties are listed in ID order, so the last ID of a page is the keyset of the next one
+        final long afterId = after == null ? 0L : after;
+        final PageRequest pageRequest = PageRequest.of(page, size);
+        if (location == null || location.isBlank()) {
+            return PageResponseDTO.of(propertyRepository.findAvailable(from, to, afterId, pageRequest));
+        }
+        return PageResponseDTO.of(propertyRepository.findAvailableByLocation(from, to, Property.searchLocationOf(location),
+                afterId, pageRequest));
+    }
+
+    @Transactional(readOnly = true)
+    public CalendarResponseDTO getCalendar(final Long propertyId, final LocalDate from, final LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("From date must be before or the same day as to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new BadRequestException("Calendar range must not exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+        if (!propertyRepository.existsById(propertyId)) {
+            throw new ResourceNotFoundException(Property.class, propertyId);
+        }
+
+        final BitSet busyDays = availabilityIndex.busyDays(propertyId, from, to);
+        final List<DateRangeDTO> unavailable = new ArrayList<>();
+        for (int start = busyDays.nextSetBit(0); start >= 0; ) {
+            final int end = busyDays.nextClearBit(start);
+            unavailable.add(new DateRangeDTO(from.plusDays(start), from.plusDays(end - 1L)));
+            start = busyDays.nextSetBit(end);
+        }
+
+        return CalendarResponseDTO.builder()
+                .propertyId(propertyId)
+                .from(from)
+                .to(to)
+                .unavailable(unavailable)
+                .build();
+    }
+
+    /**
+     * Version of the property's availability, bumped by every transaction that changes one of its entries. A single
+     * primary key lookup, so conditional requests are answered without reading the entries.
+     */
+    @Transactional(readOnly = true)
+    public long getAvailabilityVersion(final Long propertyId) {
+        return propertyRepository.findAvailabilityVersionById(propertyId)
+                .orElseThrow(() -> new ResourceNotFoundException(Property.class, propertyId));
+    }
+
+    /**
+     * Hands every ACTIVE entry of the property to the consumer, in date order, while reading them from a forward-only
+     * cursor.
+     */
+    @Transactional(readOnly = true)
+    public void streamCalendarEvents(final Long propertyId, final Consumer<ICalendarEvent> consumer) {
+        try (Stream<ICalendarEvent> events = availabilityRepository.streamActiveEventsByPropertyId(propertyId)) {
+            events.forEach(consumer);
+        }
+    }
+
+    /**
+     * Creates all properties for the logged user in one transaction. IDs come from a pooled sequence, so the inserts
+     * go out in JDBC batches and the persistence context is flushed and cleared every {@value #BULK_FLUSH_SIZE} rows.
+     */
+    @Transactional
+    public BatchCreatedResponseDTO createProperties(final List<PropertyRequestDTO> propertyDTOs) {
+        final Long ownerId = jwtService.getLoggedUser().getId();
+        final List<Long> ids = new ArrayList<>(propertyDTOs.size());
+
+        User owner = entityManager.getReference(User.class, ownerId);
+        for (final PropertyRequestDTO propertyDTO : propertyDTOs) {
+            final Property property = Property.builder()
+                    .name(propertyDTO.getName())
+                    .description(propertyDTO.getDescription())
+                    .location(propertyDTO.getLocation())
+                    .owner(owner)
+                    .build();
+            entityManager.persist(property);
+            ids.add(property.getId());
+
+            if (ids.size() % BULK_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                owner = entityManager.getReference(User.class, ownerId);
+            }
+        }
+
+        return BatchCreatedResponseDTO.builder()
+                .created(ids.size())
+                .ids(ids)
+                .build();
+    }
+}
@@ -52,10 +52,7 @@ public class UserService {
                 .build();
         userRepository.save(user);
 
-        return authService.authenticate(LoginDTO.builder()
-                .email(user.getEmail())
-                .password(userDTO.getPassword())
-                .build());
+        return authService.authenticated(user);
     }
 
     public LoginResponseDTO authenticate(final LoginDTO loginDTO) {
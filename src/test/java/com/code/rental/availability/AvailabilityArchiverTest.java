@@ -0,0 +1,134 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.request.KeysetCursor;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.domain.AvailabilityEntryFactory;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.repository.AvailabilityRepository;
+import com.code.rental.repository.PropertyRepository;
+import com.code.rental.repository.UserRepository;
+import com.code.rental.security.jwt.JwtService;
+import com.code.rental.service.BlockService;
+import com.code.rental.service.BookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class AvailabilityArchiverTest {
+
+    private static final LocalDate CUTOFF = LocalDate.parse("2024-01-01");
+
+    @Autowired
+    private AvailabilityArchiver availabilityArchiver;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @SpyBean
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BlockService blockService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private User guest;
+    private Property property;
+
+    @BeforeEach
+    public void setUp() {
+        guest = userRepository.save(User.builder().name("Guest").email("guest@gmail.com").password("123456").build());
+        final User owner = userRepository.save(User.builder()
+                .name("Owner").email("owner@gmail.com").password("123456").build());
+        property = propertyRepository.save(Property.builder().name("Beach House").owner(owner).build());
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+    }
+
+    @Test
+    void shouldMovePastEntriesToTheArchive() {
+        final AvailabilityEntry pastStay = availabilityRepository.save(AvailabilityEntryFactory.createBooking(property, guest,
+                "Guest", "guest@gmail.com", null, LocalDate.parse("2023-06-01"), LocalDate.parse("2023-06-05")));
+        final AvailabilityEntry pastBlock = availabilityRepository.save(AvailabilityEntryFactory.createBlock(property,
+                LocalDate.parse("2023-12-30"), LocalDate.parse("2023-12-31")));
+        final AvailabilityEntry currentBlock = availabilityRepository.save(AvailabilityEntryFactory.createBlock(property,
+                LocalDate.parse("2023-12-30"), LocalDate.parse("2030-01-01")));
+        final long version = availabilityVersion();
+
+        assertThat(availabilityArchiver.archive(CUTOFF)).isEqualTo(2);
+        assertThat(availabilityArchiver.archive(CUTOFF)).isZero();
+
+        assertThat(availabilityRepository.findAll()).extracting(AvailabilityEntry::getId).containsExactly(currentBlock.getId());
+        assertThat(blockService.getBlocksByPropertyId(property.getId(), KeysetCursor.START, 10)).hasSize(1);
+        assertThat(availabilityVersion()).isEqualTo(version + 1);
+
+        // found by ID in the archive, unchanged
+        final BookingResponseDTO booking = bookingService.getBookingById(pastStay.getId());
+        assertThat(booking.getGuestId()).isEqualTo(guest.getId());
+        assertThat(booking.getStartDate()).isEqualTo(LocalDate.parse("2023-06-01"));
+        assertThat(blockService.getBlockById(pastBlock.getId()).getEndDate()).isEqualTo(LocalDate.parse("2023-12-31"));
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.getBookingById(pastBlock.getId()));
+
+        // archived ranges are gone from the conflict checks, the live one is still there
+        assertThat(availabilityIndex.hasConflict(property.getId(),
+                LocalDate.parse("2023-06-02"), LocalDate.parse("2023-06-03"))).isFalse();
+        assertThat(availabilityIndex.hasConflict(property.getId(),
+                LocalDate.parse("2029-12-31"), LocalDate.parse("2030-01-02"))).isTrue();
+    }
+
+    @Test
+    void shouldKeepAnEntryMovedIntoTheFutureAfterItWasPicked() {
+        final AvailabilityEntry movedBlock = availabilityRepository.save(AvailabilityEntryFactory.createBlock(property,
+                LocalDate.parse("2023-12-30"), LocalDate.parse("2023-12-31")));
+        // an update committed between picking the IDs and locking the property
+        doAnswer(invocation -> {
+            jdbcTemplate.update("UPDATE availability_entry SET start_date = ?, end_date = ? WHERE id = ?",
+                    LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-05"), movedBlock.getId());
+            return List.of(new AvailabilityEntryKey(movedBlock.getId(), property.getId()));
+        }).when(availabilityRepository).findKeysEndedBefore(any(), any());
+
+        assertThat(availabilityArchiver.archive(CUTOFF)).isZero();
+
+        assertThat(availabilityRepository.findById(movedBlock.getId())).isPresent();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM availability_entry_archive", Long.class)).isZero();
+    }
+
+    private long availabilityVersion() {
+        return propertyRepository.findAvailabilityVersionById(property.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,176 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import com.code.rental.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AvailabilityEventHubTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AvailabilityEventHub hub = new AvailabilityEventHub(2, 1, 3, Duration.ofMinutes(1), meterRegistry);
+
+    @AfterEach
+    public void tearDown() {
+        hub.destroy();
+    }
+
+    @Test
+    void shouldPushEventsOnlyToSubscribersOfTheProperty() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(2);
+        RecordingEmitter other = new RecordingEmitter(1);
+        hub.subscribe(1L, 7L, first);
+        hub.subscribe(2L, 3L, other);
+
+        hub.publish(event(AvailabilityEventTypeEnum.CREATED, 10L, 1L));
+
+        assertThat(first.await()).isTrue();
+        assertThat(first.events).containsExactly("ready:7", "created:10");
+        assertThat(other.await()).isTrue();
+        assertThat(other.events).containsExactly("ready:3");
+        assertThat(meterRegistry.get("availability.stream.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropOldestEventsOfASlowSubscriber() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(5) {
+            @Override
+            public void send(final SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                if (events.size() == 2) {
+                    sending.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        hub.subscribe(1L, 0L, slow);
+
+        hub.publish(event(AvailabilityEventTypeEnum.CREATED, 1L, 1L));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        // the sender is stuck on the first event, the buffer of 3 only keeps the last ones
+        for (long id = 2; id <= 6; id++) {
+            hub.publish(event(AvailabilityEventTypeEnum.UPDATED, id, 1L));
+        }
+        release.countDown();
+
+        assertThat(slow.await()).isTrue();
+        assertThat(slow.events).containsExactly("ready:0", "created:1", "updated:4", "updated:5", "updated:6");
+        assertThat(meterRegistry.get("availability.stream.dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldForgetSubscribersThatWentAway() throws Exception {
+        RecordingEmitter gone = new RecordingEmitter(1) {
+            @Override
+            public void send(final SseEventBuilder builder) throws IOException {
+                if (!events.isEmpty()) {
+                    throw new IOException("Broken pipe");
+                }
+                super.send(builder);
+            }
+        };
+        hub.subscribe(1L, 0L, gone);
+
+        hub.publish(event(AvailabilityEventTypeEnum.DELETED, 1L, 1L));
+
+        while (hub.subscriberCount() > 0) {
+            Thread.onSpinWait();
+        }
+        assertThat(gone.events).containsExactly("ready:0");
+    }
+
+    @Test
+    void shouldRejectSubscribersBeyondTheLimit() throws Exception {
+        hub.subscribe(1L, 0L, new RecordingEmitter(1) {
+            @Override
+            public void send(final SseEventBuilder builder) throws IOException {
+                if (!events.isEmpty()) {
+                    throw new IOException("Broken pipe");
+                }
+                super.send(builder);
+            }
+        });
+        hub.subscribe(2L, 0L, new RecordingEmitter(1));
+
+        final ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> hub.subscribe(1L, 0L, new RecordingEmitter(1)));
+        assertThat(ex.getRetryAfter()).isPositive();
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+
+        // a subscriber leaving frees its slot
+        hub.publish(event(AvailabilityEventTypeEnum.DELETED, 1L, 1L));
+        while (hub.subscriberCount() > 1) {
+            Thread.onSpinWait();
+        }
+        hub.subscribe(1L, 0L, new RecordingEmitter(1));
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+    }
+
+    private static AvailabilityEventDTO event(final AvailabilityEventTypeEnum type, final Long id, final Long propertyId) {
+        return AvailabilityEventDTO.builder()
+                .type(type)
+                .id(id)
+                .propertyId(propertyId)
+                .entryType(EntryTypeEnum.BLOCK)
+                .startDate(LocalDate.parse("2030-01-01"))
+                .endDate(LocalDate.parse("2030-01-02"))
+                .build();
+    }
+
+    /**
+     * Keeps each sent event as {@code name:id}, or {@code name:data} for plain values.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch expected;
+
+        RecordingEmitter(final int expectedEvents) {
+            this.expected = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void send(final SseEventBuilder builder) throws IOException {
+            String name = null;
+            String data = null;
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof AvailabilityEventDTO event) {
+                    data = String.valueOf(event.getId());
+                } else if (part.getData() instanceof String text && text.startsWith("event:")) {
+                    name = text.substring("event:".length(), text.indexOf('\n'));
+                } else if (!(part.getData() instanceof String)) {
+                    data = String.valueOf(part.getData());
+                }
+            }
+            events.add(name + ":" + data);
+            expected.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return expected.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.code.rental.availability;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AvailabilityHoldsTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 1, 10);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+    private final AvailabilityHolds holds = new AvailabilityHolds(Duration.ofMinutes(10), Duration.ofSeconds(1), 3, 2,
+            meterRegistry, clock);
+
+    @Test
+    void shouldCountHeldDatesUntilTheHoldExpires() {
+        AvailabilityHold hold = holds.hold(7L, booking(1L, START, START.plusDays(2)));
+
+        assertThat(holds.overlaps(1L, START.plusDays(2), START.plusDays(5))).isTrue();
+        assertThat(holds.overlaps(1L, START.plusDays(3), START.plusDays(5))).isFalse();
+        assertThat(holds.overlaps(2L, START, START.plusDays(2))).isFalse();
+
+        clock.advance(Duration.ofMinutes(10));
+
+        // expired holds stop counting before the wheel drops them
+        assertThat(holds.overlaps(1L, START, START.plusDays(2))).isFalse();
+        assertThat(holds.get(hold.id())).isEmpty();
+        assertThat(meterRegistry.get("availability.holds.active").gauge().value()).isEqualTo(1);
+
+        holds.expire();
+
+        assertThat(meterRegistry.get("availability.holds.active").gauge().value()).isZero();
+        assertThat(meterRegistry.get("availability.holds.expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepHoldsUntilTheirDeadlineAcrossTurnsOfTheWheel() {
+        AvailabilityHold hold = holds.hold(7L, booking(1L, START, START.plusDays(2)));
+
+        // 10 minutes are more than one turn of the wheel
+        for (int second = 0; second < 599; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            holds.expire();
+        }
+        assertThat(holds.get(hold.id())).isPresent();
+
+        clock.advance(Duration.ofSeconds(2));
+        holds.expire();
+
+        assertThat(holds.get(hold.id())).isEmpty();
+        assertThat(meterRegistry.get("availability.holds.expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBoundHoldsPerGuestAndInTotal() {
+        holds.hold(7L, booking(1L, START, START));
+        AvailabilityHold released = holds.hold(7L, booking(2L, START, START));
+
+        assertThrows(ConflictException.class, () -> holds.hold(7L, booking(3L, START, START)));
+
+        assertThat(holds.release(released.id())).isTrue();
+        holds.hold(7L, booking(3L, START, START));
+        holds.hold(8L, booking(4L, START, START));
+
+        assertThrows(ServiceUnavailableException.class, () -> holds.hold(9L, booking(5L, START, START)));
+    }
+
+    @Test
+    void shouldPutATakenHoldBackWhenTheBookingRollsBack() {
+        AvailabilityHold hold = holds.hold(7L, booking(1L, START, START.plusDays(2)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(holds.take(hold.id())).contains(hold);
+            assertThat(holds.take(hold.id())).isEmpty();
+            assertThat(holds.overlaps(1L, START, START)).isFalse();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(holds.get(hold.id())).contains(hold);
+        assertThat(holds.overlaps(1L, START, START)).isTrue();
+    }
+
+    private static BookingRequestDTO booking(final Long propertyId, final LocalDate startDate, final LocalDate endDate) {
+        BookingRequestDTO booking = new BookingRequestDTO();
+        booking.setPropertyId(propertyId);
+        booking.setStartDate(startDate);
+        booking.setEndDate(endDate);
+        return booking;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(final Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(final Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
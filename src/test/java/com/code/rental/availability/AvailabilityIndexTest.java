@@ -0,0 +1,91 @@
+package com.code.rental.availability;
+
+import com.code.rental.repository.AvailabilityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AvailabilityIndexTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+
+    private final AvailabilityRepository availabilityRepository = mock(AvailabilityRepository.class);
+    private final AvailabilityIndex availabilityIndex = new AvailabilityIndex(availabilityRepository,
+            new AvailabilityHolds(Duration.ofMinutes(10), Duration.ofSeconds(1), 10, 5, new SimpleMeterRegistry()));
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldNotHoldOtherPropertiesWhileAPropertyLoads() throws Exception {
+        when(availabilityRepository.findActiveRangesByPropertyId(1L)).thenAnswer(invocation -> slowLoad());
+        when(availabilityRepository.findActiveRangesByPropertyId(2L)).thenReturn(List.of(range(2L, START, START)));
+
+        final CompletableFuture<Boolean> slowCheck = CompletableFuture.supplyAsync(
+                () -> availabilityIndex.hasConflict(1L, START, START), executor);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(availabilityIndex.hasConflict(2L, START, START)).isTrue();
+        assertThat(slowCheck.isDone()).isFalse();
+
+        release.countDown();
+        assertThat(slowCheck.get(5, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void shouldApplyAChangeCommittedDuringTheLoad() throws Exception {
+        when(availabilityRepository.findActiveRangesByPropertyId(1L)).thenAnswer(invocation -> slowLoad());
+
+        final CompletableFuture<Boolean> firstCheck = CompletableFuture.supplyAsync(
+                () -> availabilityIndex.hasConflict(1L, START, START), executor);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // committed after the load read the entries
+        availabilityIndex.recordInserted(7L, 1L, START, START.plusDays(1));
+
+        release.countDown();
+        firstCheck.get(5, TimeUnit.SECONDS);
+        assertThat(availabilityIndex.hasConflict(1L, START.plusDays(1), START.plusDays(1))).isTrue();
+        verify(availabilityRepository, times(1)).findActiveRangesByPropertyId(1L);
+    }
+
+    @Test
+    void shouldLoadAgainAfterAFailedLoad() {
+        when(availabilityRepository.findActiveRangesByPropertyId(1L))
+                .thenThrow(new IllegalStateException("Connection lost"))
+                .thenReturn(List.of(range(1L, START, START)));
+
+        assertThrows(IllegalStateException.class, () -> availabilityIndex.hasConflict(1L, START, START));
+        assertThat(availabilityIndex.hasConflict(1L, START, START)).isTrue();
+    }
+
+    private List<AvailabilityRange> slowLoad() throws InterruptedException {
+        loading.countDown();
+        assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+        return List.of();
+    }
+
+    private static AvailabilityRange range(final Long id, final LocalDate startDate, final LocalDate endDate) {
+        return new AvailabilityRange(id, startDate, endDate, 0L);
+    }
+}
@@ -0,0 +1,89 @@
+package com.code.rental.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AvailabilityIntervalsTest {
+
+    private final AvailabilityIntervals intervals = AvailabilityIntervals.of(List.of(
+            new AvailabilityRange(1L, LocalDate.parse("2025-06-01"), LocalDate.parse("2025-06-10"), 0L),
+            new AvailabilityRange(2L, LocalDate.parse("2025-06-20"), LocalDate.parse("2025-06-30"), 0L)));
+
+    @Test
+    void shouldDetectOverlaps() {
+        assertThat(intervals.overlaps(LocalDate.parse("2025-05-20"), LocalDate.parse("2025-06-01"))).isTrue();
+        assertThat(intervals.overlaps(LocalDate.parse("2025-06-10"), LocalDate.parse("2025-06-15"))).isTrue();
+        assertThat(intervals.overlaps(LocalDate.parse("2025-06-03"), LocalDate.parse("2025-06-05"))).isTrue();
+        assertThat(intervals.overlaps(LocalDate.parse("2025-05-01"), LocalDate.parse("2025-07-01"))).isTrue();
+        assertThat(intervals.overlaps(LocalDate.parse("2025-06-25"), LocalDate.parse("2025-06-25"))).isTrue();
+    }
+
+    @Test
+    void shouldNotDetectOverlapsInGaps() {
+        assertThat(intervals.overlaps(LocalDate.parse("2025-05-01"), LocalDate.parse("2025-05-31"))).isFalse();
+        assertThat(intervals.overlaps(LocalDate.parse("2025-06-11"), LocalDate.parse("2025-06-19"))).isFalse();
+        assertThat(intervals.overlaps(LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-10"))).isFalse();
+        assertThat(AvailabilityIntervals.EMPTY.overlaps(LocalDate.parse("2025-06-01"), LocalDate.parse("2025-06-10"))).isFalse();
+    }
+
+    @Test
+    void shouldDetectOverlapWithLongRangeStartingEarlier() {
+        final AvailabilityIntervals nested = AvailabilityIntervals.of(List.of(
+                new AvailabilityRange(1L, LocalDate.parse("2025-01-01"), LocalDate.parse("2025-12-31"), 0L),
+                new AvailabilityRange(2L, LocalDate.parse("2025-03-01"), LocalDate.parse("2025-03-02"), 0L)));
+
+        assertThat(nested.overlaps(LocalDate.parse("2025-08-01"), LocalDate.parse("2025-08-02"))).isTrue();
+    }
+
+    @Test
+    void shouldApplyChanges() {
+        final AvailabilityIntervals changed = intervals.apply(List.of(
+                AvailabilityChange.removed(1L, 1L),
+                new AvailabilityChange(2L, 1L, LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-05"), 1L, true),
+                new AvailabilityChange(3L, 1L, LocalDate.parse("2025-08-01"), LocalDate.parse("2025-08-05"), 0L, true)));
+
+        assertThat(changed.size()).isEqualTo(2);
+        assertThat(changed.overlaps(LocalDate.parse("2025-06-01"), LocalDate.parse("2025-06-30"))).isFalse();
+        assertThat(changed.overlaps(LocalDate.parse("2025-07-03"), LocalDate.parse("2025-07-03"))).isTrue();
+        assertThat(changed.overlaps(LocalDate.parse("2025-08-05"), LocalDate.parse("2025-08-06"))).isTrue();
+        assertThat(intervals.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIgnoreStaleChanges() {
+        final AvailabilityIntervals updated = intervals.apply(List.of(
+                new AvailabilityChange(1L, 1L, LocalDate.parse("2025-09-01"), LocalDate.parse("2025-09-05"), 2L, true)));
+        final AvailabilityIntervals stale = updated.apply(List.of(
+                new AvailabilityChange(1L, 1L, LocalDate.parse("2025-06-01"), LocalDate.parse("2025-06-10"), 1L, true)));
+
+        assertThat(stale.overlaps(LocalDate.parse("2025-06-05"), LocalDate.parse("2025-06-05"))).isFalse();
+        assertThat(stale.overlaps(LocalDate.parse("2025-09-03"), LocalDate.parse("2025-09-03"))).isTrue();
+    }
+
+    @Test
+    void shouldUseCalendarInsideTheHorizon() {
+        final LocalDate today = LocalDate.now();
+        final AvailabilityIntervals upcoming = AvailabilityIntervals.of(List.of(
+                new AvailabilityRange(1L, today.plusDays(60), today.plusDays(70), 0L),
+                new AvailabilityRange(2L, today.plusDays(128), today.plusDays(128), 0L)));
+
+        assertThat(upcoming.overlaps(today.plusDays(50), today.plusDays(60))).isTrue();
+        assertThat(upcoming.overlaps(today.plusDays(70), today.plusDays(200))).isTrue();
+        assertThat(upcoming.overlaps(today.plusDays(71), today.plusDays(127))).isFalse();
+        assertThat(upcoming.overlaps(today.plusDays(127), today.plusDays(129))).isTrue();
+        assertThat(upcoming.overlaps(today.plusDays(129), today.plusDays(1000))).isFalse();
+
+        assertThat(upcoming.busyDays(today.plusDays(58), today.plusDays(62)).toString()).isEqualTo("{2, 3, 4}");
+        assertThat(upcoming.busyDays(today.plusDays(120), today.plusDays(130)).toString()).isEqualTo("{8}");
+    }
+
+    @Test
+    void shouldComputeBusyDaysOutsideTheHorizon() {
+        assertThat(intervals.busyDays(LocalDate.parse("2025-06-08"), LocalDate.parse("2025-06-21")).toString())
+                .isEqualTo("{0, 1, 2, 12, 13}");
+    }
+}
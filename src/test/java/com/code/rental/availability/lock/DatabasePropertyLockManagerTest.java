@@ -0,0 +1,100 @@
+package com.code.rental.availability.lock;
+
+import com.code.rental.controller.dto.request.BlockRequestDTO;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.repository.AvailabilityRepository;
+import com.code.rental.repository.PropertyRepository;
+import com.code.rental.repository.UserRepository;
+import com.code.rental.security.jwt.JwtService;
+import com.code.rental.service.BlockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "app.availability.lock-mode=database")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class DatabasePropertyLockManagerTest {
+
+    private final LocalDate startDate = LocalDate.now().plusDays(1);
+
+    @Autowired
+    private PropertyLockManager propertyLockManager;
+
+    @Autowired
+    private BlockService blockService;
+
+    @SpyBean
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private Property property;
+
+    @BeforeEach
+    public void setUp() {
+        final User owner = userRepository.save(User.builder()
+                .name("Owner").email("owner@gmail.com").password("123456").build());
+        property = propertyRepository.save(Property.builder().name("Beach House").owner(owner).build());
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+    }
+
+    @Test
+    void shouldKeepTheIndexedRangesWhileOnlyThisNodeWrites() {
+        assertThat(propertyLockManager).isInstanceOf(DatabasePropertyLockManager.class);
+
+        blockService.createBlock(block(startDate, startDate.plusDays(1)));
+        blockService.createBlock(block(startDate.plusDays(3), startDate.plusDays(4)));
+        assertThrows(ConflictException.class, () -> blockService.createBlock(block(startDate, startDate)));
+
+        verify(availabilityRepository, times(1)).findActiveRangesByPropertyId(property.getId());
+    }
+
+    @Test
+    void shouldReloadTheRangesWhenAnotherNodeMovedTheVersion() {
+        blockService.createBlock(block(startDate, startDate.plusDays(1)));
+
+        // a block written and versioned by another node
+        jdbcTemplate.update("""
+                INSERT INTO availability_entry (id, type, property_id, start_date, end_date, status, version)
+                VALUES (1000000, 'BLOCK', ?, ?, ?, 'ACTIVE', 0)
+                """, property.getId(), startDate.plusDays(5), startDate.plusDays(6));
+        jdbcTemplate.update("UPDATE property SET availability_version = availability_version + 1 WHERE id = ?",
+                property.getId());
+
+        assertThrows(ConflictException.class, () -> blockService.createBlock(block(startDate.plusDays(6), startDate.plusDays(7))));
+        verify(availabilityRepository, times(2)).findActiveRangesByPropertyId(property.getId());
+    }
+
+    private BlockRequestDTO block(final LocalDate start, final LocalDate end) {
+        return BlockRequestDTO.builder().propertyId(property.getId()).startDate(start).endDate(end).build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.code.rental.availability.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StripedPropertyLockManagerTest {
+
+    private final StripedPropertyLockManager lockManager = new StripedPropertyLockManager(64, 1000);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldNotDeadlockWhenBatchesListTheSamePropertiesInAnotherOrder() throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        for (int round = 0; round < 200; round++) {
+            final CompletableFuture<Void> first = CompletableFuture.runAsync(
+                    () -> inTransaction(barrier, () -> lockManager.lockAll(List.of(1L, 2L, 3L))), executor);
+            final CompletableFuture<Void> second = CompletableFuture.runAsync(
+                    () -> inTransaction(barrier, () -> lockManager.lockAll(List.of(3L, 2L, 1L))), executor);
+
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        }
+        assertThat(executor.submit(() -> inTransaction(null, () -> lockManager.lockAll(List.of(1L, 2L, 3L))))
+                .get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void shouldRequireATransaction() {
+        assertThrows(IllegalStateException.class, () -> lockManager.lockAll(List.of(1L)));
+    }
+
+    private static Void inTransaction(final CyclicBarrier barrier, final Runnable locking) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            if (barrier != null) {
+                barrier.await(5, TimeUnit.SECONDS);
+            }
+            locking.run();
+            // hold the locks a moment so the other batch runs into them
+            Thread.sleep(1);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        return null;
+    }
+}
@@ -1,14 +1,17 @@
 package com.code.rental.concurrency;
 
+import com.code.rental.controller.dto.request.BlockRequestDTO;
 import com.code.rental.controller.dto.request.BookingRequestDTO;
 import com.code.rental.controller.dto.request.UserRequestDTO;
 import com.code.rental.domain.AvailabilityEntry;
 import com.code.rental.domain.Property;
 import com.code.rental.domain.User;
 import com.code.rental.domain.enums.BookingStatusEnum;
+import com.code.rental.exception.ConflictException;
 import com.code.rental.repository.AvailabilityRepository;
 import com.code.rental.repository.PropertyRepository;
 import com.code.rental.security.jwt.JwtService;
+import com.code.rental.service.BlockService;
 import com.code.rental.service.BookingService;
 import com.code.rental.service.UserService;
 import jakarta.transaction.Transactional;
@@ -24,9 +27,14 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -41,6 +49,9 @@ public class ConcurrencyTest {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BlockService blockService;
+
     @Autowired
     private AvailabilityRepository availabilityRepository;
 
@@ -166,4 +177,78 @@ public class ConcurrencyTest {
         assertThat(updatedBooking.getVersion()).isEqualTo(booking1.getVersion() + 1);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldNotLetOverlappingEntriesThroughWhenThousandsOfThreadsHitOneProperty() throws InterruptedException {
+        final ThreadLocal<User> loggedUser = new ThreadLocal<>();
+        when(jwtService.getLoggedUser()).thenAnswer(invocation -> loggedUser.get());
+
+        loggedUser.set(guest);
+        final List<Long> bookingIds = List.of(
+                bookingService.createBooking(bookingRequest(startDate, startDate)).getId(),
+                bookingService.createBooking(bookingRequest(startDate.plusDays(2), startDate.plusDays(2))).getId());
+
+        final int threadCount = 1000;
+        final int requestCount = 3000;
+        final Random random = new Random(42);
+        final Queue<Throwable> unexpectedErrors = new ConcurrentLinkedQueue<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        for (int i = 0; i < requestCount; i++) {
+            final LocalDate start = startDate.plusDays(random.nextInt(120));
+            final LocalDate end = start.plusDays(random.nextInt(6));
+            final int operation = i % 3;
+            final Long bookingId = bookingIds.get(i % bookingIds.size());
+
+            executor.submit(() -> {
+                try {
+                    switch (operation) {
+                        case 0 -> {
+                            loggedUser.set(guest);
+                            bookingService.createBooking(bookingRequest(start, end));
+                        }
+                        case 1 -> {
+                            loggedUser.set(owner);
+                            blockService.createBlock(BlockRequestDTO.builder()
+                                    .propertyId(property.getId())
+                                    .startDate(start)
+                                    .endDate(end)
+                                    .build());
+                        }
+                        default -> {
+                            loggedUser.set(guest);
+                            bookingService.updateBooking(bookingId, bookingRequest(start, end));
+                        }
+                    }
+                } catch (ConflictException | DataIntegrityViolationException e) {
+                    // expected outcomes of losing the race; the property lock is taken before the entry is read, so
+                    // an optimistic locking failure would mean two writers of the entry were not serialised
+                } catch (Throwable e) {
+                    unexpectedErrors.add(e);
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(unexpectedErrors).isEmpty();
+
+        final List<AvailabilityEntry> activeEntries = availabilityRepository.findAll().stream()
+                .filter(entry -> entry.getStatus() == BookingStatusEnum.ACTIVE)
+                .sorted(Comparator.comparing(AvailabilityEntry::getStartDate))
+                .toList();
+
+        assertThat(activeEntries.size()).isGreaterThan(bookingIds.size());
+        for (int i = 1; i < activeEntries.size(); i++) {
+            assertThat(activeEntries.get(i).getStartDate()).isAfter(activeEntries.get(i - 1).getEndDate());
+        }
+    }
+
+    private BookingRequestDTO bookingRequest(final LocalDate start, final LocalDate end) {
+        return BookingRequestDTO.builder()
+                .startDate(start)
+                .endDate(end)
+                .propertyId(property.getId())
+                .build();
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.code.rental.concurrency;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The concurrency scenarios again, with the property locks of multi-node deployments.
+ */
+@SpringBootTest(properties = "app.availability.lock-mode=database")
+public class DatabaseLockConcurrencyTest extends ConcurrencyTest {
+}
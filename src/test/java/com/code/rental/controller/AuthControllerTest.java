@@ -3,6 +3,7 @@ package com.code.rental.controller;
 import com.code.rental.controller.dto.request.LoginDTO;
 import com.code.rental.controller.dto.request.UserRequestDTO;
 import com.code.rental.controller.dto.response.LoginResponseDTO;
+import com.code.rental.exception.ServiceUnavailableException;
 import com.code.rental.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,15 +13,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles("test")
@@ -101,4 +106,21 @@ public class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void authenticateUserShouldReturn503WhenHashingIsSaturated() throws Exception {
+        LoginDTO loginDTO = LoginDTO.builder()
+                .email("guest1@gmail.com")
+                .password("123456")
+                .build();
+
+        when(userService.authenticate(any(LoginDTO.class)))
+                .thenThrow(new ServiceUnavailableException("Too many authentication requests, try again later", Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+}
@@ -1,8 +1,11 @@
 package com.code.rental.controller;
 
+import com.code.rental.controller.dto.request.KeysetCursor;
+import com.code.rental.controller.dto.response.BlockBatchResponseDTO;
 import com.code.rental.controller.dto.response.BlockResponseDTO;
 import com.code.rental.security.jwt.JwtProvider;
 import com.code.rental.service.BlockService;
+import com.code.rental.service.PropertyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,11 +17,25 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -35,6 +52,9 @@ public class BlockControllerTest {
     @MockBean
     private BlockService blockService;
 
+    @MockBean
+    private PropertyService propertyService;
+
     private String accessToken;
 
     @BeforeEach
@@ -125,4 +145,94 @@ public class BlockControllerTest {
                 .andExpect(status().isNoContent());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getBlocksByPropertyIdShouldLinkToNextPage() throws Exception {
+        final KeysetCursor after = new KeysetCursor(LocalDate.parse("2030-01-01"), 7L);
+        when(blockService.getBlocksByPropertyId(eq(1L), eq(after), eq(2))).thenReturn(List.of(
+                new BlockResponseDTO(8L, 3L, 1L, LocalDate.parse("2030-01-02"), LocalDate.parse("2030-01-02")),
+                new BlockResponseDTO(9L, 3L, 1L, LocalDate.parse("2030-01-04"), LocalDate.parse("2030-01-05"))));
+
+        mockMvc.perform(get("/blocks?propertyId=1&after=2030-01-01,7&limit=2")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "<http://localhost/blocks?propertyId=1&after=2030-01-04,9&limit=2>; rel=\"next\""));
+    }
+
+    @Test
+    void getBlocksByPropertyIdShouldTagWithAvailabilityVersion() throws Exception {
+        when(propertyService.getAvailabilityVersion(1L)).thenReturn(42L);
+        when(blockService.getBlocksByPropertyId(anyLong(), any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/blocks?propertyId=1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42\""));
+    }
+
+    @Test
+    void getBlocksByPropertyIdShouldReturn304WhenUnchanged() throws Exception {
+        when(propertyService.getAvailabilityVersion(1L)).thenReturn(42L);
+
+        mockMvc.perform(get("/blocks?propertyId=1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42\""));
+
+        verify(blockService, never()).getBlocksByPropertyId(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void getBlocksByPropertyIdWithInvalidCursorShouldReturn400() throws Exception {
+        when(blockService.getBlocksByPropertyId(anyLong(), any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/blocks?propertyId=1&after=yesterday")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamBlocksByPropertyIdShouldWriteNdjson() throws Exception {
+        doAnswer(invocation -> {
+            final Consumer<BlockResponseDTO> rows = invocation.getArgument(2);
+            rows.accept(new BlockResponseDTO(1L, 3L, 1L, LocalDate.parse("2030-01-02"), LocalDate.parse("2030-01-03")));
+            rows.accept(new BlockResponseDTO(2L, 3L, 1L, LocalDate.parse("2030-02-02"), LocalDate.parse("2030-02-03")));
+            return null;
+        }).when(blockService).streamBlocksByPropertyId(eq(1L), eq(KeysetCursor.START), any(Consumer.class));
+
+        final MvcResult result = mockMvc.perform(get("/blocks?propertyId=1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"ownerId\":3,\"propertyId\":1,\"startDate\":\"2030-01-02\",\"endDate\":\"2030-01-03\"}\n"
+                                + "{\"id\":2,\"ownerId\":3,\"propertyId\":1,\"startDate\":\"2030-02-02\",\"endDate\":\"2030-02-03\"}\n"));
+    }
+
+    @Test
+    void createBlocksShouldReturn200() throws Exception {
+        when(blockService.createBlocks(anyList())).thenReturn(new BlockBatchResponseDTO());
+
+        mockMvc.perform(post("/blocks/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"blocks\":[{\"propertyId\":1,\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-05\"}]}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createBlocksWithoutBlocksShouldReturn400() throws Exception {
+        mockMvc.perform(post("/blocks/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"blocks\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,8 +2,11 @@ package com.code.rental.controller;
 
 import com.code.rental.controller.dto.response.BookingResponseDTO;
 import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.exception.BadRequestException;
 import com.code.rental.exception.ConflictException;
 import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.idempotency.IdempotentRequests;
 import com.code.rental.security.jwt.JwtProvider;
 import com.code.rental.service.BookingService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,10 +21,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -56,9 +66,33 @@ public class BookingControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void createBookingRetryWithIdempotencyKeyShouldReplayTheFirstResponse() throws Exception {
+        when(bookingService.createBooking(any())).thenReturn(new BookingResponseDTO(1L), new BookingResponseDTO(2L));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/bookings")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                            .header(IdempotentRequests.HEADER, "create-booking-retry")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"propertyId\":1,\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-02\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(HttpHeaders.LOCATION, "/bookings/1"));
+        }
+
+        mockMvc.perform(post("/bookings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .header(IdempotentRequests.HEADER, "create-booking-retry")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"propertyId\":1,\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-03\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(bookingService).createBooking(any());
+    }
+
     @Test
     void createBookingWithBlockedPropertyShouldReturn409() throws Exception {
-        when(bookingService.createBooking(any())).thenThrow(new ConflictException("Property is blocked for the selected dates"));
+        when(bookingService.createBooking(any())).thenThrow(new ConflictException(ConflictReasonEnum.UNAVAILABLE, "Property is blocked for the selected dates", 1L));
 
         mockMvc.perform(post("/bookings")
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
@@ -137,4 +171,37 @@ public class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsShouldReturn200() throws Exception {
+        when(bookingService.getBookings(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/bookings?guestId=1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getPropertyBookingsShouldReturn304WhenUnchanged() throws Exception {
+        when(bookingService.getBookingsVersion(1L, null)).thenReturn(42L);
+
+        mockMvc.perform(get("/bookings?propertyId=1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42\""));
+
+        verify(bookingService, never()).getBookings(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void streamBookingsShouldFailBeforeStreaming() throws Exception {
+        doThrow(new BadRequestException("Exactly one of propertyId or guestId is required"))
+                .when(bookingService).checkCanListBookings(null, null);
+
+        mockMvc.perform(get("/bookings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isBadRequest());
+    }
+}
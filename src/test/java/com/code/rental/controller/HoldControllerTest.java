@@ -0,0 +1,116 @@
+package com.code.rental.controller;
+
+import com.code.rental.availability.AvailabilityHold;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.controller.dto.response.HoldResponseDTO;
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.security.jwt.JwtProvider;
+import com.code.rental.service.BookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class HoldControllerTest {
+
+    private static final UUID HOLD_ID = UUID.fromString("7d4c6f8e-1b2a-4c3d-9e8f-0a1b2c3d4e5f");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @MockBean
+    private BookingService bookingService;
+
+    private String accessToken;
+
+    @BeforeEach
+    public void setUp() {
+        accessToken = jwtProvider.createToken("guest1@gmail.com");
+    }
+
+    @Test
+    void holdBookingShouldReturn201() throws Exception {
+        when(bookingService.holdBooking(any())).thenReturn(HoldResponseDTO.builder().id(HOLD_ID).build());
+
+        mockMvc.perform(post("/holds")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"propertyId\":1,\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-02\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/holds/" + HOLD_ID));
+    }
+
+    @Test
+    void holdBookingWithUnavailableDatesShouldReturn409() throws Exception {
+        when(bookingService.holdBooking(any())).thenThrow(new ConflictException(ConflictReasonEnum.UNAVAILABLE,
+                "Property is not available for the selected dates", 1L));
+
+        mockMvc.perform(post("/holds")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"propertyId\":1,\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-02\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void confirmHoldShouldReturn201() throws Exception {
+        when(bookingService.confirmHold(HOLD_ID)).thenReturn(new BookingResponseDTO(1L));
+
+        mockMvc.perform(post("/holds/" + HOLD_ID + "/booking")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/bookings/1"));
+    }
+
+    @Test
+    void confirmExpiredHoldShouldReturn404() throws Exception {
+        when(bookingService.confirmHold(HOLD_ID))
+                .thenThrow(new ResourceNotFoundException(AvailabilityHold.class, HOLD_ID.toString()));
+
+        mockMvc.perform(post("/holds/" + HOLD_ID + "/booking")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void releaseHoldShouldReturn204() throws Exception {
+        mockMvc.perform(delete("/holds/" + HOLD_ID)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void releaseHoldOfAnotherGuestShouldReturn409() throws Exception {
+        doThrow(new ConflictException(ConflictReasonEnum.NOT_OWNER, "You can't release a hold that you didn't place"))
+                .when(bookingService).releaseHold(HOLD_ID);
+
+        mockMvc.perform(delete("/holds/" + HOLD_ID)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,184 @@
+package com.code.rental.controller;
+
+import com.code.rental.controller.dto.response.BatchCreatedResponseDTO;
+import com.code.rental.controller.dto.response.CalendarImportResponseDTO;
+import com.code.rental.controller.dto.response.CalendarResponseDTO;
+import com.code.rental.controller.dto.response.PageResponseDTO;
+import com.code.rental.domain.enums.EntryTypeEnum;
+import com.code.rental.ical.ICalendarEvent;
+import com.code.rental.security.jwt.JwtProvider;
+import com.code.rental.service.BlockService;
+import com.code.rental.service.PropertyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class PropertyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @MockBean
+    private PropertyService propertyService;
+
+    @MockBean
+    private BlockService blockService;
+
+    private String accessToken;
+
+    @BeforeEach
+    public void setUp() {
+        accessToken = jwtProvider.createToken("guest1@gmail.com");
+    }
+
+    @Test
+    void getCalendarShouldReturn200() throws Exception {
+        when(propertyService.getCalendar(anyLong(), any(), any())).thenReturn(new CalendarResponseDTO());
+
+        mockMvc.perform(get("/properties/1/calendar?from=2030-01-01&to=2030-01-31")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getCalendarWithoutDatesShouldReturn400() throws Exception {
+        mockMvc.perform(get("/properties/1/calendar")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCalendarWithoutTokenShouldReturn401() throws Exception {
+        mockMvc.perform(get("/properties/1/calendar?from=2030-01-01&to=2030-01-31"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getAvailablePropertiesShouldReturn200() throws Exception {
+        when(propertyService.getAvailableProperties(any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new PageResponseDTO<>());
+
+        mockMvc.perform(get("/properties/available?from=2030-01-01&to=2030-01-05&location=Miami")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createPropertiesShouldReturn201() throws Exception {
+        when(propertyService.createProperties(anyList())).thenReturn(new BatchCreatedResponseDTO());
+
+        mockMvc.perform(post("/properties/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"properties\":[{\"name\":\"Beach House\",\"location\":\"Miami\"}]}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void createPropertiesWithoutNameShouldReturn400() throws Exception {
+        mockMvc.perform(post("/properties/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"properties\":[{\"location\":\"Miami\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportCalendarShouldStreamICalendarWithETag() throws Exception {
+        when(propertyService.getAvailabilityVersion(1L)).thenReturn(42L);
+        doAnswer(invocation -> {
+            final Consumer<ICalendarEvent> events = invocation.getArgument(1);
+            events.accept(new ICalendarEvent(7L, EntryTypeEnum.BLOCK, LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-03")));
+            return null;
+        }).when(propertyService).streamCalendarEvents(eq(1L), any(Consumer.class));
+
+        final MvcResult result = mockMvc.perform(get("/properties/1/calendar.ics")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"42\""))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(content().string(containsString(
+                        "DTSTART;VALUE=DATE:20300101\r\nDTEND;VALUE=DATE:20300104\r\nSUMMARY:Blocked\r\n")));
+    }
+
+    @Test
+    void exportCalendarShouldReturn304WhenUnchanged() throws Exception {
+        when(propertyService.getAvailabilityVersion(1L)).thenReturn(42L);
+
+        mockMvc.perform(get("/properties/1/calendar.ics")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"42\""))
+                .andExpect(status().isNotModified());
+
+        verify(propertyService, never()).streamCalendarEvents(anyLong(), any());
+    }
+
+    @Test
+    void streamAvailabilityShouldStartWithReadyEvent() throws Exception {
+        when(propertyService.getAvailabilityVersion(1L)).thenReturn(42L);
+
+        mockMvc.perform(get("/properties/1/availability/stream")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("event:ready\ndata:42\n\n"));
+    }
+
+    @Test
+    void importCalendarShouldReturn200() throws Exception {
+        when(blockService.importCalendar(eq(1L), any(Reader.class)))
+                .thenReturn(CalendarImportResponseDTO.builder().created(1).build());
+
+        mockMvc.perform(put("/properties/1/calendar.ics")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType("text/calendar")
+                        .content("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+    }
+}
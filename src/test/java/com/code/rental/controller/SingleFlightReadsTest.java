@@ -0,0 +1,156 @@
+package com.code.rental.controller;
+
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.domain.AvailabilityEntry;
+import com.code.rental.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightReadsTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlightReads singleFlightReads = new SingleFlightReads(meterRegistry, Duration.ofSeconds(5));
+    private final AtomicInteger reads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRunConcurrentIdenticalReadsOnce() throws Exception {
+        final List<CompletableFuture<String>> callers = startCallers(() ->
+                singleFlightReads.read("booking", List.of(1L), this::blockingRead));
+
+        release.countDown();
+        for (CompletableFuture<String> caller : callers) {
+            assertThat(caller.get(5, TimeUnit.SECONDS)).isEqualTo("booking 1");
+        }
+
+        assertThat(reads.get()).isEqualTo(1);
+        assertThat(count("booking", false)).isEqualTo(1);
+        assertThat(count("booking", true)).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void shouldNotShareReadsOfDifferentKeysOrCompletedReads() {
+        singleFlightReads.read("blocks", List.of(1L, 3L), reads::incrementAndGet);
+        singleFlightReads.read("blocks", List.of(1L, 4L), reads::incrementAndGet);
+        singleFlightReads.read("blocks", List.of(1L, 4L), reads::incrementAndGet);
+        singleFlightReads.read("booking", List.of(1L, 4L), reads::incrementAndGet);
+
+        assertThat(reads.get()).isEqualTo(4);
+        assertThat(count("blocks", false)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldFailEveryCoalescedCallerWithTheReadsException() throws Exception {
+        final List<CompletableFuture<String>> callers = startCallers(() ->
+                singleFlightReads.read("booking", List.of(1L), () -> {
+                    blockingRead();
+                    throw new ResourceNotFoundException(AvailabilityEntry.class, 1L);
+                }));
+
+        release.countDown();
+        for (CompletableFuture<String> caller : callers) {
+            final ExecutionException ex = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertThat(ex.getCause()).isInstanceOf(ResourceNotFoundException.class);
+        }
+        assertThat(reads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRunItsOwnReadWhenTheSharedReadTakesTooLong() throws Exception {
+        final SingleFlightReads impatientReads = new SingleFlightReads(meterRegistry, Duration.ofMillis(100));
+        final CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                impatientReads.read("booking", List.of(1L), this::blockingRead), executor);
+        while (reads.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThat(impatientReads.read("booking", List.of(1L), () -> "booking 1 again")).isEqualTo("booking 1 again");
+        assertThat(first.isDone()).isFalse();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("booking 1");
+        // the caller that gave up ran a read of its own
+        assertThat(count("booking", false)).isEqualTo(2);
+        assertThat(meterRegistry.find("rental.reads").tags("coalesced", "true").counter()).isNull();
+    }
+
+    @Test
+    void shouldNotJoinAReadThatStartedBeforeAChangeWasCommitted() throws Exception {
+        final CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                singleFlightReads.read("booking", List.of(1L), this::blockingRead), executor);
+        while (reads.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        // the caller's own update, committed while the first read is running
+        singleFlightReads.onAvailabilityEvent(AvailabilityEventDTO.builder().id(1L).build());
+        assertThat(singleFlightReads.read("booking", List.of(1L), () -> "booking 1 updated")).isEqualTo("booking 1 updated");
+        assertThat(first.isDone()).isFalse();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("booking 1");
+        assertThat(count("booking", false)).isEqualTo(2);
+    }
+
+    // starts the first caller, then the others once its read is running
+    private List<CompletableFuture<String>> startCallers(final Supplier<String> call)
+            throws InterruptedException {
+        final List<CompletableFuture<String>> callers = new ArrayList<>();
+        callers.add(CompletableFuture.supplyAsync(call, executor));
+        while (reads.get() == 0) {
+            Thread.sleep(1);
+        }
+        final CountDownLatch joined = new CountDownLatch(CALLERS - 1);
+        for (int i = 1; i < CALLERS; i++) {
+            callers.add(CompletableFuture.supplyAsync(() -> {
+                joined.countDown();
+                return call.get();
+            }, executor));
+        }
+        assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+        // let the callers reach the running read
+        Thread.sleep(200);
+        return callers;
+    }
+
+    private String blockingRead() {
+        reads.incrementAndGet();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "booking 1";
+    }
+
+    private double count(final String resource, final boolean coalesced) {
+        return meterRegistry.get("rental.reads")
+                .tags("resource", resource, "coalesced", String.valueOf(coalesced))
+                .counter().count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.code.rental.ical;
+
+import com.code.rental.domain.enums.EntryTypeEnum;
+import com.code.rental.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ICalendarReaderTest {
+
+    @Test
+    void shouldReadTheDaysOfEachEvent() throws IOException {
+        final String feed = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20300101",
+                "DTEND;VALUE=DATE:20300104",
+                "SUMMARY:Reserved by a very long",
+                "  summary folded on the next line",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;TZID=\"Europe/Lisbon:Madeira\":20300110T150000",
+                "DTEND;TZID=Europe/Lisbon:20300112T110000",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20300120",
+                "DURATION:P1W",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20300201",
+                "STATUS:CANCELLED",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20300202",
+                "TRANSP:TRANSPARENT",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTST",
+                " ART:20300301",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        final List<LocalDate> days = new ArrayList<>();
+        final int count = ICalendarReader.readEvents(new StringReader(feed), (start, end) -> {
+            days.add(start);
+            days.add(end);
+        });
+
+        assertThat(count).isEqualTo(4);
+        assertThat(days).containsExactly(
+                LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-03"),
+                LocalDate.parse("2030-01-10"), LocalDate.parse("2030-01-12"),
+                LocalDate.parse("2030-01-20"), LocalDate.parse("2030-01-26"),
+                LocalDate.parse("2030-03-01"), LocalDate.parse("2030-03-01"));
+    }
+
+    @Test
+    void shouldReadWhatItWrites() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ICalendarWriter writer = new ICalendarWriter(out, 1L);
+        writer.write(new ICalendarEvent(7L, EntryTypeEnum.BLOCK, LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-03")));
+        writer.write(new ICalendarEvent(8L, EntryTypeEnum.BOOKING, LocalDate.parse("2030-01-05"), LocalDate.parse("2030-01-05")));
+        writer.finish();
+
+        final String calendar = out.toString(StandardCharsets.UTF_8);
+        assertThat(calendar).startsWith("BEGIN:VCALENDAR\r\n").endsWith("END:VCALENDAR\r\n")
+                .contains("UID:7@api-property-rental\r\n", "DTEND;VALUE=DATE:20300104\r\n", "SUMMARY:Booked\r\n");
+
+        final List<LocalDate> days = new ArrayList<>();
+        ICalendarReader.readEvents(new StringReader(calendar), (start, end) -> {
+            days.add(start);
+            days.add(end);
+        });
+        assertThat(days).containsExactly(
+                LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-03"),
+                LocalDate.parse("2030-01-05"), LocalDate.parse("2030-01-05"));
+    }
+
+    @Test
+    void shouldRejectInvalidEvents() {
+        final BadRequestException missingStart = assertThrows(BadRequestException.class, () ->
+                ICalendarReader.readEvents(new StringReader("BEGIN:VEVENT\nDTEND:20300101\nEND:VEVENT\n"), (start, end) -> {
+                }));
+        assertThat(missingStart.getMessage()).isEqualTo("Invalid calendar: event without DTSTART");
+
+        final BadRequestException invalidDate = assertThrows(BadRequestException.class, () ->
+                ICalendarReader.readEvents(new StringReader("BEGIN:VEVENT\nDTSTART:tomorrow\nEND:VEVENT\n"), (start, end) -> {
+                }));
+        assertThat(invalidDate.getMessage()).isEqualTo("Invalid calendar date: tomorrow");
+    }
+}
@@ -0,0 +1,102 @@
+package com.code.rental.idempotency;
+
+import com.code.rental.domain.IdempotencyKey;
+import com.code.rental.repository.IdempotencyKeyRepository;
+import com.code.rental.security.jwt.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"app.idempotency.store=database", "app.idempotency.in-flight-timeout=1s"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class DatabaseIdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @Test
+    void shouldLetTheFirstRequestClaimAKey() {
+        assertThat(idempotencyStore).isInstanceOf(DatabaseIdempotencyStore.class);
+
+        assertThat(idempotencyStore.claim("1 POST /bookings key", "hash")).isEmpty();
+        assertThat(idempotencyStore.claim("1 POST /bookings key", "other")).get()
+                .satisfies(record -> {
+                    assertThat(record.requestHash()).isEqualTo("hash");
+                    assertThat(record.isCompleted()).isFalse();
+                });
+
+        idempotencyStore.complete("1 POST /bookings key", new IdempotencyRecord("hash", 201, "/bookings/1", "{\"id\":1}"));
+
+        assertThat(idempotencyStore.claim("1 POST /bookings key", "hash"))
+                .contains(new IdempotencyRecord("hash", 201, "/bookings/1", "{\"id\":1}"));
+    }
+
+    @Test
+    void shouldLetARetryClaimAReleasedOrExpiredKey() {
+        idempotencyStore.claim("1 POST /bookings released", "hash");
+        idempotencyStore.release("1 POST /bookings released");
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .id("1 POST /bookings expired")
+                .requestHash("hash")
+                .status(201)
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build());
+
+        assertThat(idempotencyStore.find("1 POST /bookings expired")).isEmpty();
+        assertThat(idempotencyStore.claim("1 POST /bookings released", "other")).isEmpty();
+        assertThat(idempotencyStore.claim("1 POST /bookings expired", "other")).isEmpty();
+        assertThat(idempotencyKeyRepository.findById("1 POST /bookings expired").orElseThrow().getStatus()).isNull();
+    }
+
+    @Test
+    void shouldKeepTheClaimOfARunningRequestPastTheInFlightTimeout() throws InterruptedException {
+        assertThat(idempotencyStore.claim("1 POST /bookings key", "hash")).isEmpty();
+
+        Thread.sleep(2500);
+
+        assertThat(idempotencyStore.claim("1 POST /bookings key", "hash")).get()
+                .satisfies(record -> assertThat(record.isCompleted()).isFalse());
+        idempotencyStore.complete("1 POST /bookings key", new IdempotencyRecord("hash", 201, "/bookings/1", "{\"id\":1}"));
+        assertThat(idempotencyStore.find("1 POST /bookings key")).get()
+                .satisfies(record -> assertThat(record.isCompleted()).isTrue());
+    }
+
+    @Test
+    void shouldRethrowAViolationThatIsNoDuplicateKey() {
+        // longer than the column
+        assertThrows(DataIntegrityViolationException.class, () -> idempotencyStore.claim("k".repeat(600), "hash"));
+    }
+
+    @Test
+    void shouldPurgeExpiredKeys() {
+        idempotencyStore.claim("1 POST /bookings key", "hash");
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .id("1 POST /bookings expired")
+                .requestHash("hash")
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build());
+
+        ((DatabaseIdempotencyStore) idempotencyStore).purgeExpired();
+
+        assertThat(idempotencyKeyRepository.findAll()).extracting(IdempotencyKey::getId)
+                .containsExactly("1 POST /bookings key");
+    }
+}
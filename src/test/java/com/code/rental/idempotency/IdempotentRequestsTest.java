@@ -0,0 +1,154 @@
+package com.code.rental.idempotency;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.domain.User;
+import com.code.rental.domain.enums.ConflictReasonEnum;
+import com.code.rental.exception.BadRequestException;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.security.jwt.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IdempotentRequestsTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final IdempotentRequests idempotentRequests = new IdempotentRequests(
+            new InMemoryIdempotencyStore(100, Duration.ofHours(1), new SimpleMeterRegistry()),
+            jwtService, new ObjectMapper().findAndRegisterModules(), Duration.ofSeconds(5));
+    private final AtomicInteger bookings = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        when(jwtService.getLoggedUser()).thenReturn(User.builder().id(1L).build());
+    }
+
+    @Test
+    void shouldReplayTheFirstResponseToRetries() {
+        final ResponseEntity<BookingResponseDTO> first = createBooking("key", booking(10));
+        final ResponseEntity<BookingResponseDTO> retry = createBooking("key", booking(10));
+
+        assertThat(bookings.get()).isEqualTo(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getLocation()).isEqualTo(first.getHeaders().getLocation());
+        assertThat(retry.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(first.getHeaders().containsKey(IdempotentRequests.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void shouldScopeKeysByCallerAndOperation() {
+        createBooking("key", booking(10));
+        idempotentRequests.execute("POST /blocks", "key", booking(10), BookingResponseDTO.class, this::book);
+        when(jwtService.getLoggedUser()).thenReturn(User.builder().id(2L).build());
+        createBooking("key", booking(10));
+
+        assertThat(bookings.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectAKeyReusedForADifferentRequest() {
+        createBooking("key", booking(10));
+
+        assertThrows(IllegalArgumentException.class, () -> createBooking("key", booking(11)));
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRunTheRequestAgainAfterItFailed() {
+        assertThrows(ConflictException.class, () -> idempotentRequests.execute("POST /bookings", "key", booking(10),
+                BookingResponseDTO.class, () -> {
+                    throw new ConflictException(ConflictReasonEnum.LOCK_TIMEOUT, "Property is being updated, please try again");
+                }));
+
+        createBooking("key", booking(10));
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMakeConcurrentRetriesWaitForTheFirstResponse() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<ResponseEntity<BookingResponseDTO>> first = CompletableFuture.supplyAsync(() ->
+                idempotentRequests.execute("POST /bookings", "key", booking(10), BookingResponseDTO.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return book();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final CompletableFuture<ResponseEntity<BookingResponseDTO>> retry =
+                CompletableFuture.supplyAsync(() -> createBooking("key", booking(10)));
+        Thread.sleep(100);
+        assertThat(retry).isNotDone();
+
+        release.countDown();
+        assertThat(retry.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(first.get(5, TimeUnit.SECONDS).getBody());
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnTheResponseWhenItCannotBeStored() {
+        final IdempotentRequests failingStore = new IdempotentRequests(
+                new InMemoryIdempotencyStore(100, Duration.ofHours(1), new SimpleMeterRegistry()) {
+                    @Override
+                    public void complete(final String key, final IdempotencyRecord record) {
+                        throw new IllegalStateException("Store unavailable");
+                    }
+                }, jwtService, new ObjectMapper().findAndRegisterModules(), Duration.ofSeconds(5));
+
+        final ResponseEntity<BookingResponseDTO> response = failingStore.execute("POST /bookings", "key", booking(10),
+                BookingResponseDTO.class, this::book);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldRejectKeysThatAreTooLong() {
+        assertThrows(BadRequestException.class, () -> createBooking("k".repeat(256), booking(10)));
+        assertThat(bookings.get()).isZero();
+    }
+
+    private ResponseEntity<BookingResponseDTO> createBooking(final String key, final BookingRequestDTO booking) {
+        return idempotentRequests.execute("POST /bookings", key, booking, BookingResponseDTO.class, this::book);
+    }
+
+    private ResponseEntity<BookingResponseDTO> book() {
+        final long id = bookings.incrementAndGet();
+        return ResponseEntity.created(URI.create("/bookings/" + id)).body(new BookingResponseDTO(id));
+    }
+
+    private static BookingRequestDTO booking(final int day) {
+        return BookingRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.of(2030, 1, day))
+                .endDate(LocalDate.of(2030, 1, day + 2))
+                .build();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
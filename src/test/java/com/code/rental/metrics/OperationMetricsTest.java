@@ -0,0 +1,134 @@
+package com.code.rental.metrics;
+
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.exception.ConflictException;
+import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.repository.PropertyRepository;
+import com.code.rental.repository.UserRepository;
+import com.code.rental.security.jwt.JwtService;
+import com.code.rental.service.BookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class OperationMetricsTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private User owner;
+    private User guest;
+    private Property property;
+
+    @BeforeEach
+    public void setUp() {
+        guest = userRepository.save(User.builder().name("Guest").email("guest@gmail.com").password("123456").build());
+        owner = userRepository.save(User.builder().name("Owner").email("owner@gmail.com").password("123456").build());
+        property = propertyRepository.save(Property.builder().name("Beach House").owner(owner).build());
+        when(jwtService.getLoggedUser()).thenReturn(guest);
+    }
+
+    @Test
+    void shouldTimeOperationsByOutcome() {
+        final BookingResponseDTO booking = bookingService.createBooking(booking("2030-01-01", "2030-01-05"));
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booking("2030-01-03", "2030-01-07")));
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.cancelBooking(99L));
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booking("2030-02-01", "2030-02-05")));
+        assertThrows(ConflictException.class, () -> bookingService.cancelBooking(booking.getId()));
+
+        assertThat(operations("createBooking", "success")).isEqualTo(1);
+        assertThat(operations("createBooking", "unavailable")).isEqualTo(1);
+        assertThat(operations("createBooking", "own_property")).isEqualTo(1);
+        assertThat(operations("cancelBooking", "not_found")).isEqualTo(1);
+        assertThat(operations("cancelBooking", "not_owner")).isEqualTo(1);
+        assertThat(meterRegistry.get("rental.operation").tag("operation", "createBooking").tag("outcome", "success")
+                .timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void shouldCountConflictsPerProperty() {
+        bookingService.createBooking(booking("2030-01-01", "2030-01-05"));
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booking("2030-01-03", "2030-01-07")));
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booking("2030-01-04", "2030-01-04")));
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booking("2030-02-01", "2030-02-05")));
+
+        // only availability conflicts point at a hot property, the owner booking its own property does not
+        assertThat(meterRegistry.get("rental.availability.conflicts").counters()).hasSize(1);
+        assertThat(meterRegistry.get("rental.availability.conflicts")
+                .tag("property", property.getId().toString())
+                .tag("reason", "unavailable")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecordStatementsPerOperation() {
+        bookingService.createBooking(booking("2030-01-01", "2030-01-05"));
+        bookingService.createBooking(booking("2030-02-01", "2030-02-05"));
+
+        // the warm booking still sends the conditional insert and the version UPDATE and SELECT through JdbcTemplate
+        assertThat(meterRegistry.get("rental.operation.statements").tag("operation", "createBooking")
+                .summary().max()).isGreaterThanOrEqualTo(3);
+
+        final long statements = statementCounter.count();
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM property", Long.class);
+        assertThat(statementCounter.count()).isEqualTo(statements + 1);
+    }
+
+    private long operations(final String operation, final String outcome) {
+        return meterRegistry.get("rental.operation")
+                .tag("service", "booking")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer().count();
+    }
+
+    private BookingRequestDTO booking(final String startDate, final String endDate) {
+        return BookingRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(LocalDate.parse(startDate))
+                .endDate(LocalDate.parse(endDate))
+                .guestName("Guest")
+                .build();
+    }
+}
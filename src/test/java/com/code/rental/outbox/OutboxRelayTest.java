@@ -0,0 +1,139 @@
+package com.code.rental.outbox;
+
+import com.code.rental.controller.dto.request.BlockRequestDTO;
+import com.code.rental.controller.dto.response.BlockResponseDTO;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.repository.OutboxEventRepository;
+import com.code.rental.repository.PropertyRepository;
+import com.code.rental.repository.UserRepository;
+import com.code.rental.security.jwt.JwtService;
+import com.code.rental.service.BlockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BlockService blockService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private Received received;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private Property beachHouse;
+    private Property cabin;
+
+    @BeforeEach
+    public void setUp() {
+        final User owner = userRepository.save(User.builder()
+                .name("Owner")
+                .email("owner@gmail.com")
+                .password("123456")
+                .build());
+        beachHouse = propertyRepository.save(Property.builder().name("Beach House").owner(owner).build());
+        cabin = propertyRepository.save(Property.builder().name("Cabin").owner(owner).build());
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+    }
+
+    @Test
+    void shouldPublishInCommitOrderPerPropertyAndDelete() {
+        final BlockResponseDTO block = blockService.createBlock(block(beachHouse, "2030-01-01", "2030-01-03"));
+        blockService.createBlock(block(cabin, "2030-01-01", "2030-01-03"));
+        blockService.updateBlock(block.getId(), block(beachHouse, "2030-01-02", "2030-01-04"));
+        blockService.deleteBlock(block.getId());
+
+        assertThat(outboxRelay.relay()).isEqualTo(4);
+
+        assertThat(received.of(beachHouse)).extracting(message -> message.event().getType(), message -> message.event().getStartDate())
+                .containsExactly(
+                        tuple(AvailabilityEventTypeEnum.CREATED, LocalDate.parse("2030-01-01")),
+                        tuple(AvailabilityEventTypeEnum.UPDATED, LocalDate.parse("2030-01-02")),
+                        tuple(AvailabilityEventTypeEnum.DELETED, LocalDate.parse("2030-01-02")));
+        assertThat(received.of(cabin)).extracting(message -> message.event().getType())
+                .containsExactly(AvailabilityEventTypeEnum.CREATED);
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(outboxRelay.relay()).isZero();
+    }
+
+    @Test
+    void shouldRetryAPropertyFromItsFailedEvent() {
+        final BlockResponseDTO block = blockService.createBlock(block(beachHouse, "2030-01-01", "2030-01-03"));
+        blockService.updateBlock(block.getId(), block(beachHouse, "2030-01-02", "2030-01-04"));
+        blockService.deleteBlock(block.getId());
+        blockService.createBlock(block(cabin, "2030-01-01", "2030-01-03"));
+        received.failOnce = AvailabilityEventTypeEnum.UPDATED;
+
+        // the beach house stops at its failed update, the cabin is not held back by it
+        assertThat(outboxRelay.relay()).isEqualTo(2);
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+        assertThat(outboxRelay.relay()).isEqualTo(2);
+
+        assertThat(received.of(beachHouse)).extracting(message -> message.event().getType()).containsExactly(
+                AvailabilityEventTypeEnum.CREATED, AvailabilityEventTypeEnum.UPDATED, AvailabilityEventTypeEnum.DELETED);
+        assertThat(received.of(cabin)).hasSize(1);
+    }
+
+    private static BlockRequestDTO block(final Property property, final String startDate, final String endDate) {
+        return BlockRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(LocalDate.parse(startDate))
+                .endDate(LocalDate.parse(endDate))
+                .build();
+    }
+
+    @TestConfiguration
+    static class Received {
+
+        private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+        private volatile AvailabilityEventTypeEnum failOnce;
+
+        @EventListener
+        public void onMessage(final OutboxMessage message) {
+            if (message.event().getType() == failOnce) {
+                failOnce = null;
+                throw new IllegalStateException("Channel manager unavailable");
+            }
+            messages.add(message);
+        }
+
+        List<OutboxMessage> of(final Property property) {
+            return messages.stream().filter(message -> message.event().getPropertyId().equals(property.getId())).toList();
+        }
+    }
+}
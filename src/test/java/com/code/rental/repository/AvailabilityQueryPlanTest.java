@@ -0,0 +1,45 @@
+package com.code.rental.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class AvailabilityQueryPlanTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldProbeConflictsWithOneIndexRangeSeek() {
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", 1L)
+                .addValue("propertyId", 1L)
+                .addValue("startDate", LocalDate.parse("2030-01-01"))
+                .addValue("endDate", LocalDate.parse("2030-01-05"))
+                .addValue("guestId", 1L)
+                .addValue("guestName", null)
+                .addValue("guestEmail", null)
+                .addValue("guestPhone", null);
+
+        final String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN " + AvailabilityRepositoryCustomImpl.INSERT_BOOKING_IF_NO_CONFLICT, params, String.class);
+
+        // H2 prints the conditions the index lookup is bounded by in a comment after the table
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        final int seekStart = plan.indexOf("/* PUBLIC.IDX_PROPERTY_STATUS_DATES:");
+        assertThat(seekStart).isNotNegative();
+        final String seek = plan.substring(seekStart, plan.indexOf("*/", seekStart));
+        assertThat(seek).contains("PROPERTY_ID = ", "STATUS = 'ACTIVE'", "START_DATE <= ", "END_DATE >= ");
+    }
+}
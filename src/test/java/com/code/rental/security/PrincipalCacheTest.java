@@ -0,0 +1,78 @@
+package com.code.rental.security;
+
+import com.code.rental.domain.User;
+import com.code.rental.repository.UserRepository;
+import com.code.rental.security.services.UserPrinciple;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class PrincipalCacheTest {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder()
+                .name("Guest")
+                .email("guest@gmail.com")
+                .password("123456")
+                .build());
+    }
+
+    @Test
+    void shouldLoadPrincipalOnlyOnce() {
+        userDetailsService.loadUserByUsername("guest@gmail.com");
+        userDetailsService.loadUserByUsername("guest@gmail.com");
+        final UserPrinciple principal = (UserPrinciple) userDetailsService.loadUserByUsername("guest@gmail.com");
+
+        assertThat(principal.getId()).isEqualTo(user.getId());
+        assertThat(count("miss")).isEqualTo(1);
+        assertThat(count("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidatePrincipalWhenUserChanges() {
+        userDetailsService.loadUserByUsername("guest@gmail.com");
+
+        user.setName("Renamed");
+        userRepository.save(user);
+
+        final UserPrinciple principal = (UserPrinciple) userDetailsService.loadUserByUsername("guest@gmail.com");
+        assertThat(principal.getName()).isEqualTo("Renamed");
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotCacheUnknownUsers() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody@gmail.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody@gmail.com"));
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    private double count(final String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "principals", "result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,92 @@
+package com.code.rental.security.jwt;
+
+import com.code.rental.domain.User;
+import com.code.rental.security.services.UserPrinciple;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtProviderTest {
+
+    private JwtProvider jwtProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtProvider = new JwtProvider();
+        jwtProvider.setJwtSecret(UUID.randomUUID().toString() + UUID.randomUUID());
+        jwtProvider.setJwtIssuer("api-property-rental");
+        jwtProvider.setJwtExpiration(3600);
+    }
+
+    @Test
+    void shouldVerifyGeneratedToken() {
+        final String token = jwtProvider.generateJwtToken(authentication("guest@gmail.com"));
+
+        final Claims claims = jwtProvider.verifyJwtToken(token);
+
+        assertThat(claims.getSubject()).isEqualTo("guest@gmail.com");
+        assertThat(claims.getIssuer()).isEqualTo("api-property-rental");
+    }
+
+    @Test
+    void shouldReuseVerifiedClaims() {
+        final String token = jwtProvider.createToken("guest@gmail.com");
+
+        final Claims first = jwtProvider.verifyJwtToken(token);
+        final Claims second = jwtProvider.verifyJwtToken(token);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        final String token = jwtProvider.createToken("guest@gmail.com");
+        jwtProvider.verifyJwtToken(token);
+
+        final String tampered = token.substring(0, token.length() - 4) + "AAAA";
+        final SecurityException ex = assertThrows(SecurityException.class, () -> jwtProvider.verifyJwtToken(tampered));
+        assertThat(ex.getMessage()).isEqualTo("Invalid JWT signature");
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        jwtProvider.setJwtExpiration(-1);
+        final String token = jwtProvider.generateJwtToken(authentication("guest@gmail.com"));
+
+        final SecurityException ex = assertThrows(SecurityException.class, () -> jwtProvider.verifyJwtToken(token));
+        assertThat(ex.getMessage()).isEqualTo("JWT token expired");
+    }
+
+    @Test
+    void shouldRejectTokensSignedWithPreviousSecret() {
+        final String token = jwtProvider.createToken("guest@gmail.com");
+        jwtProvider.verifyJwtToken(token);
+
+        jwtProvider.setJwtSecret(UUID.randomUUID().toString() + UUID.randomUUID());
+
+        assertThrows(SecurityException.class, () -> jwtProvider.verifyJwtToken(token));
+    }
+
+    @Test
+    void shouldRejectMissingToken() {
+        final SecurityException ex = assertThrows(SecurityException.class, () -> jwtProvider.verifyJwtToken(""));
+        assertThat(ex.getMessage()).isEqualTo("JWT token is missing");
+    }
+
+    private static Authentication authentication(final String email) {
+        final UserPrinciple principal = UserPrinciple.build(User.builder()
+                .id(1L)
+                .name("Guest")
+                .email(email)
+                .password("123456")
+                .build());
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -2,31 +2,49 @@ package com.code.rental.service;
 
 import com.code.rental.controller.dto.request.BlockRequestDTO;
 import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.request.KeysetCursor;
+import com.code.rental.controller.dto.response.AvailabilityEventDTO;
+import com.code.rental.controller.dto.response.BlockBatchItemDTO;
+import com.code.rental.controller.dto.response.BlockBatchResponseDTO;
 import com.code.rental.controller.dto.response.BlockResponseDTO;
+import com.code.rental.controller.dto.response.CalendarImportResponseDTO;
+import com.code.rental.controller.dto.response.DateRangeDTO;
 import com.code.rental.domain.AvailabilityEntry;
 import com.code.rental.domain.AvailabilityEntryFactory;
 import com.code.rental.domain.Property;
 import com.code.rental.domain.User;
+import com.code.rental.domain.enums.AvailabilityEventTypeEnum;
+import com.code.rental.exception.BadRequestException;
 import com.code.rental.exception.ConflictException;
 import com.code.rental.exception.ResourceNotFoundException;
 import com.code.rental.repository.AvailabilityRepository;
 import com.code.rental.repository.PropertyRepository;
 import com.code.rental.repository.UserRepository;
 import com.code.rental.security.jwt.JwtService;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.StringReader;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
@@ -51,6 +69,12 @@ public class BlockServiceTest {
     @Autowired
     private PropertyRepository propertyRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CommittedEvents committedEvents;
+
     @MockBean
     private JwtService jwtService;
 
@@ -383,4 +407,273 @@ public class BlockServiceTest {
         List<BlockResponseDTO> blocks = blockService.getBlocksByPropertyId(property.getId());
         assertThat(blocks).hasSize(1);
     }
+
+    @Test
+    void shouldCheckOwnershipFromSecondLevelCache() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        blockService.createBlock(BlockRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(LocalDate.parse("2030-01-01"))
+                .endDate(LocalDate.parse("2030-01-02"))
+                .build());
+
+        statistics.clear();
+        blockService.createBlock(BlockRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(LocalDate.parse("2030-02-01"))
+                .endDate(LocalDate.parse("2030-02-02"))
+                .build());
+
+        assertThat(statistics.getEntityStatistics(Property.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("property").getHitCount()).isEqualTo(1);
+        assertThat(userRepository.findByEmail("owner@gmail.com")).contains(owner);
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadBlocksWithOneStatementRegardlessOfResultSize() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        int created = 0;
+        for (int size : new int[]{1, 25}) {
+            for (; created < size; created++) {
+                final LocalDate start = LocalDate.parse("2030-01-01").plusDays(created * 2L);
+                blockService.createBlock(BlockRequestDTO.builder()
+                        .propertyId(property.getId())
+                        .startDate(start)
+                        .endDate(start)
+                        .build());
+            }
+
+            statistics.clear();
+            final List<BlockResponseDTO> blocks = blockService.getBlocksByPropertyId(property.getId());
+            assertThat(blocks).hasSize(size);
+            assertThat(blocks).allMatch(block -> owner.getId().equals(block.getOwnerId()));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+
+            statistics.clear();
+            blockService.getBlockById(blocks.get(0).getId());
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+        }
+    }
+
+    @Test
+    void shouldPageBlocksByStartDateAndId() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        for (int i = 4; i >= 0; i--) {
+            blockService.createBlock(BlockRequestDTO.builder()
+                    .propertyId(property.getId())
+                    .startDate(LocalDate.parse("2030-01-01").plusDays(i * 2L))
+                    .endDate(LocalDate.parse("2030-01-01").plusDays(i * 2L))
+                    .build());
+        }
+
+        final List<BlockResponseDTO> first = blockService.getBlocksByPropertyId(property.getId(), KeysetCursor.START, 2);
+        assertThat(first).extracting(BlockResponseDTO::getStartDate)
+                .containsExactly(LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-03"));
+
+        final BlockResponseDTO last = first.get(1);
+        final List<BlockResponseDTO> second = blockService.getBlocksByPropertyId(property.getId(),
+                new KeysetCursor(last.getStartDate(), last.getId()), 2);
+        assertThat(second).extracting(BlockResponseDTO::getStartDate)
+                .containsExactly(LocalDate.parse("2030-01-05"), LocalDate.parse("2030-01-07"));
+
+        final List<BlockResponseDTO> streamed = new ArrayList<>();
+        blockService.streamBlocksByPropertyId(property.getId(), new KeysetCursor(last.getStartDate(), last.getId()), streamed::add);
+        assertThat(streamed).extracting(BlockResponseDTO::getStartDate)
+                .containsExactly(LocalDate.parse("2030-01-05"), LocalDate.parse("2030-01-07"), LocalDate.parse("2030-01-09"));
+    }
+
+    @Test
+    void shouldThrowIfLimitIsOutOfRange() {
+        final BadRequestException ex = assertThrows(BadRequestException.class, () -> {
+            blockService.getBlocksByPropertyId(property.getId(), KeysetCursor.START, 0);
+        });
+        assertThat(ex.getMessage()).isEqualTo("Limit must be between 1 and 1000");
+    }
+
+    @Test
+    void shouldCreateBlocksInBatchWithResultPerBlock() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final Property otherProperty = propertyRepository.save(Property.builder()
+                .name("Mountain Cabin")
+                .owner(guest)
+                .build());
+        blockService.createBlock(BlockRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(LocalDate.parse("2030-01-10"))
+                .endDate(LocalDate.parse("2030-01-12"))
+                .build());
+
+        final BlockBatchResponseDTO result = blockService.createBlocks(List.of(
+                block(property.getId(), "2030-01-05", "2030-01-08"),
+                block(property.getId(), "2030-01-11", "2030-01-11"),
+                block(property.getId(), "2030-01-07", "2030-01-09"),
+                block(property.getId(), "2030-01-01", "2030-01-03"),
+                block(property.getId(), "2030-01-04", "2030-01-02"),
+                block(otherProperty.getId(), "2030-01-01", "2030-01-03"),
+                block(Long.MAX_VALUE, "2030-01-01", "2030-01-03")));
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(5);
+        assertThat(result.getResults()).extracting(BlockBatchItemDTO::getIndex).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(result.getResults()).extracting(BlockBatchItemDTO::getStatus).containsExactly(
+                BlockBatchItemDTO.Status.CREATED,
+                BlockBatchItemDTO.Status.CONFLICT,
+                BlockBatchItemDTO.Status.CONFLICT,
+                BlockBatchItemDTO.Status.CREATED,
+                BlockBatchItemDTO.Status.INVALID,
+                BlockBatchItemDTO.Status.NOT_OWNER,
+                BlockBatchItemDTO.Status.NOT_FOUND);
+        assertThat(result.getResults().get(4).getMessage()).isEqualTo("Start date must be before or the same day as end date");
+
+        final List<BlockResponseDTO> blocks = blockService.getBlocksByPropertyId(property.getId());
+        assertThat(blocks).extracting(BlockResponseDTO::getId)
+                .containsExactly(result.getResults().get(3).getId(), result.getResults().get(0).getId(), blocks.get(2).getId());
+        assertThat(blockService.getBlocksByPropertyId(otherProperty.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldInsertBlocksInJdbcBatches() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final List<BlockRequestDTO> blockDTOs = IntStream.range(0, 2500)
+                .mapToObj(i -> LocalDate.parse("2030-01-01").plusDays(i * 2L))
+                .map(day -> BlockRequestDTO.builder().propertyId(property.getId()).startDate(day).endDate(day).build())
+                .toList();
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final BlockBatchResponseDTO result = blockService.createBlocks(blockDTOs);
+
+        assertThat(result.getCreated()).isEqualTo(2500);
+        // every block is written together with its outbox event
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(5000);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(200);
+        assertThat(blockService.getBlocksByPropertyId(property.getId(), KeysetCursor.START, 1000)).hasSize(1000);
+
+        // the accepted blocks are visible to the availability index once committed
+        final ConflictException ex = assertThrows(ConflictException.class, () -> blockService.createBlock(blockDTOs.get(2499)));
+        assertThat(ex.getMessage()).isEqualTo("Cannot block property for the selected dates");
+    }
+
+    @Test
+    void shouldSyncBlocksWithCalendarFeed() throws Exception {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final BlockResponseDTO kept = blockService.createBlock(block(property.getId(), "2030-01-01", "2030-01-03"));
+        final BlockResponseDTO moved = blockService.createBlock(block(property.getId(), "2030-01-10", "2030-01-12"));
+        when(jwtService.getLoggedUser()).thenReturn(guest);
+        bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(LocalDate.parse("2030-01-20"))
+                .endDate(LocalDate.parse("2030-01-22"))
+                .build());
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+
+        final CalendarImportResponseDTO result = blockService.importCalendar(property.getId(), new StringReader(String.join("\n",
+                "BEGIN:VCALENDAR",
+                event("20300101", "20300104"),
+                // moved block: overlaps its old dates, which are removed by the same import
+                event("20300111", "20300115"),
+                event("20300114", "20300116"),
+                event("20300121", "20300123"),
+                "END:VCALENDAR")));
+
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getRemoved()).isEqualTo(1);
+        assertThat(result.getConflicts()).containsExactly(
+                new DateRangeDTO(LocalDate.parse("2030-01-14"), LocalDate.parse("2030-01-15")),
+                new DateRangeDTO(LocalDate.parse("2030-01-21"), LocalDate.parse("2030-01-22")));
+
+        final List<BlockResponseDTO> blocks = blockService.getBlocksByPropertyId(property.getId());
+        assertThat(blocks).extracting(BlockResponseDTO::getStartDate)
+                .containsExactly(LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-11"));
+        assertThat(blocks.get(0).getId()).isEqualTo(kept.getId());
+        assertThat(availabilityRepository.findById(moved.getId())).isEmpty();
+
+        // the index saw the removal: the old dates of the moved block are free again
+        blockService.createBlock(block(property.getId(), "2030-01-10", "2030-01-10"));
+    }
+
+    @Test
+    void shouldThrowIfImportingCalendarOfPropertyNotOwned() {
+        when(jwtService.getLoggedUser()).thenReturn(guest);
+
+        final ConflictException ex = assertThrows(ConflictException.class, () ->
+                blockService.importCalendar(property.getId(), new StringReader("BEGIN:VCALENDAR\nEND:VCALENDAR\n")));
+        assertThat(ex.getMessage()).isEqualTo("You can't block a property that you don't own");
+    }
+
+    @Test
+    void shouldBumpAvailabilityVersionOncePerCommittedChange() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        assertThat(availabilityVersion()).isZero();
+
+        final BlockResponseDTO block = blockService.createBlock(block(property.getId(), "2030-01-01", "2030-01-03"));
+        assertThat(availabilityVersion()).isEqualTo(1);
+
+        // many entries written by one transaction bump the version once
+        blockService.createBlocks(List.of(
+                block(property.getId(), "2030-02-01", "2030-02-01"),
+                block(property.getId(), "2030-02-03", "2030-02-03")));
+        assertThat(availabilityVersion()).isEqualTo(2);
+
+        blockService.updateBlock(block.getId(), block(property.getId(), "2030-01-02", "2030-01-04"));
+        assertThat(availabilityVersion()).isEqualTo(3);
+
+        assertThrows(ConflictException.class, () -> blockService.createBlock(block(property.getId(), "2030-01-04", "2030-01-05")));
+        assertThat(availabilityVersion()).isEqualTo(3);
+
+        blockService.deleteBlock(block.getId());
+        assertThat(availabilityVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldPublishAvailabilityEventsAfterCommit() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+
+        final BlockResponseDTO block = blockService.createBlock(block(property.getId(), "2030-01-01", "2030-01-03"));
+        blockService.updateBlock(block.getId(), block(property.getId(), "2030-01-02", "2030-01-04"));
+        assertThrows(ConflictException.class, () -> blockService.createBlock(block(property.getId(), "2030-01-04", "2030-01-05")));
+        blockService.deleteBlock(block.getId());
+
+        assertThat(committedEvents.events)
+                .extracting(AvailabilityEventDTO::getType, AvailabilityEventDTO::getId, AvailabilityEventDTO::getStartDate)
+                .containsExactly(
+                        tuple(AvailabilityEventTypeEnum.CREATED, block.getId(), LocalDate.parse("2030-01-01")),
+                        tuple(AvailabilityEventTypeEnum.UPDATED, block.getId(), LocalDate.parse("2030-01-02")),
+                        tuple(AvailabilityEventTypeEnum.DELETED, block.getId(), LocalDate.parse("2030-01-02")));
+    }
+
+    private long availabilityVersion() {
+        return propertyRepository.findAvailabilityVersionById(property.getId()).orElseThrow();
+    }
+
+    @TestConfiguration
+    static class CommittedEvents {
+
+        private final List<AvailabilityEventDTO> events = new CopyOnWriteArrayList<>();
+
+        @TransactionalEventListener
+        public void onAvailabilityEvent(final AvailabilityEventDTO event) {
+            events.add(event);
+        }
+    }
+
+    private static String event(final String startDate, final String endDate) {
+        return String.join("\n", "BEGIN:VEVENT", "DTSTART;VALUE=DATE:" + startDate, "DTEND;VALUE=DATE:" + endDate, "END:VEVENT");
+    }
+
+    private static BlockRequestDTO block(final Long propertyId, final String startDate, final String endDate) {
+        return BlockRequestDTO.builder()
+                .propertyId(propertyId)
+                .startDate(LocalDate.parse(startDate))
+                .endDate(LocalDate.parse(endDate))
+                .build();
+    }
 }
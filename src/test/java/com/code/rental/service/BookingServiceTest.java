@@ -2,11 +2,14 @@ package com.code.rental.service;
 
 import com.code.rental.controller.dto.request.BlockRequestDTO;
 import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.request.KeysetCursor;
 import com.code.rental.controller.dto.request.UserRequestDTO;
 import com.code.rental.controller.dto.response.BookingResponseDTO;
+import com.code.rental.controller.dto.response.HoldResponseDTO;
 import com.code.rental.domain.Property;
 import com.code.rental.domain.User;
 import com.code.rental.domain.enums.BookingStatusEnum;
+import com.code.rental.exception.BadRequestException;
 import com.code.rental.exception.ConflictException;
 import com.code.rental.exception.ResourceNotFoundException;
 import com.code.rental.repository.PropertyRepository;
@@ -18,10 +21,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -45,6 +51,9 @@ public class BookingServiceTest {
     @Autowired
     private BlockService blockService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @MockBean
     private JwtService jwtService;
     private User owner;
@@ -211,6 +220,30 @@ public class BookingServiceTest {
         assertThat(ex.getMessage()).isEqualTo("Property is not available for the selected dates");
     }
 
+    @Test
+    void shouldThrowIfConditionalInsertFindsConflict() {
+        bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2025-05-01"))
+                .endDate(LocalDate.parse("2025-05-10"))
+                .build());
+
+        // written behind the back of the availability index, only the conditional insert can see it
+        jdbcTemplate.update("""
+                INSERT INTO availability_entry (id, version, property_id, type, status, start_date, end_date)
+                VALUES (1000000, 0, 1, 'BLOCK', 'ACTIVE', DATE '2025-06-01', DATE '2025-06-10')
+                """);
+
+        final ConflictException ex = assertThrows(ConflictException.class, () -> {
+            bookingService.createBooking(BookingRequestDTO.builder()
+                    .propertyId(1L)
+                    .startDate(LocalDate.parse("2025-06-05"))
+                    .endDate(LocalDate.parse("2025-06-15"))
+                    .build());
+        });
+        assertThat(ex.getMessage()).isEqualTo("Property is not available for the selected dates");
+    }
+
     @Test
     void shouldThrowIfThereIsBlockConflict() {
         when(jwtService.getLoggedUser()).thenReturn(owner);
@@ -691,4 +724,139 @@ public class BookingServiceTest {
         assertThat(bookingResponseDTO.getPropertyId()).isEqualTo(1L);
     }
 
+    @Test
+    void shouldGetBookingById() {
+        final BookingRequestDTO bookingDTO = BookingRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2025-06-01"))
+                .endDate(LocalDate.parse("2025-06-10"))
+                .guestName("John")
+                .build();
+        final Long id = bookingService.createBooking(bookingDTO).getId();
+
+        final BookingResponseDTO booking = bookingService.getBookingById(id);
+        assertThat(booking.getStatus()).isEqualTo(BookingStatusEnum.ACTIVE);
+        assertThat(booking.getGuestId()).isEqualTo(guest.getId());
+        assertThat(booking.getOwnerId()).isEqualTo(owner.getId());
+        assertThat(booking.getGuestName()).isEqualTo("John");
+        assertThat(booking.getEndDate()).isEqualTo(LocalDate.parse("2025-06-10"));
+    }
+
+    @Test
+    void shouldNotGetBlockAsBooking() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final Long blockId = blockService.createBlock(BlockRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2025-06-01"))
+                .endDate(LocalDate.parse("2025-06-10"))
+                .build()).getId();
+
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.getBookingById(blockId));
+    }
+
+    @Test
+    void shouldListBookingsOfGuestAndOfOwnedProperty() {
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(BookingRequestDTO.builder()
+                    .propertyId(1L)
+                    .startDate(LocalDate.parse("2030-01-01").plusDays(i * 10L))
+                    .endDate(LocalDate.parse("2030-01-05").plusDays(i * 10L))
+                    .build());
+        }
+
+        final List<BookingResponseDTO> mine = bookingService.getBookings(null, guest.getId(), KeysetCursor.START, 2);
+        assertThat(mine).extracting(BookingResponseDTO::getStartDate)
+                .containsExactly(LocalDate.parse("2030-01-01"), LocalDate.parse("2030-01-11"));
+
+        final List<BookingResponseDTO> streamed = new ArrayList<>();
+        bookingService.streamBookings(null, guest.getId(),
+                new KeysetCursor(mine.get(1).getStartDate(), mine.get(1).getId()), streamed::add);
+        assertThat(streamed).extracting(BookingResponseDTO::getStartDate).containsExactly(LocalDate.parse("2030-01-21"));
+
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        assertThat(bookingService.getBookings(1L, null, KeysetCursor.START, 10)).hasSize(3);
+    }
+
+    @Test
+    void shouldVersionBookingsOfOwnedProperty() {
+        bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2030-01-01"))
+                .endDate(LocalDate.parse("2030-01-05"))
+                .build());
+        bookingService.cancelBooking(1L);
+        assertThat(bookingService.getBookingsVersion(null, guest.getId())).isNull();
+
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        assertThat(bookingService.getBookingsVersion(1L, null)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotListBookingsOfOthers() {
+        final ConflictException guestEx = assertThrows(ConflictException.class, () -> {
+            bookingService.getBookings(null, owner.getId(), KeysetCursor.START, 10);
+        });
+        assertThat(guestEx.getMessage()).isEqualTo("You can't list bookings of another guest");
+
+        final ConflictException propertyEx = assertThrows(ConflictException.class, () -> {
+            bookingService.getBookings(1L, null, KeysetCursor.START, 10);
+        });
+        assertThat(propertyEx.getMessage()).isEqualTo("You can't list bookings of a property that you don't own");
+
+        final BadRequestException bothEx = assertThrows(BadRequestException.class, () -> {
+            bookingService.getBookings(1L, guest.getId(), KeysetCursor.START, 10);
+        });
+        assertThat(bothEx.getMessage()).isEqualTo("Exactly one of propertyId or guestId is required");
+    }
+
+    @Test
+    void shouldKeepHeldDatesOffTheMarketUntilTheHoldIsConfirmed() {
+        final BookingRequestDTO bookingDTO = BookingRequestDTO.builder()
+                .propertyId(1L)
+                .guestName("Guest")
+                .startDate(LocalDate.parse("2025-06-01"))
+                .endDate(LocalDate.parse("2025-06-10"))
+                .build();
+
+        final HoldResponseDTO hold = bookingService.holdBooking(bookingDTO);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM availability_entry", Long.class)).isZero();
+
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2025-06-10"))
+                .endDate(LocalDate.parse("2025-06-12"))
+                .build()));
+
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        assertThrows(ConflictException.class, () -> blockService.createBlock(BlockRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2025-05-25"))
+                .endDate(LocalDate.parse("2025-06-01"))
+                .build()));
+        assertThrows(ConflictException.class, () -> bookingService.confirmHold(hold.getId()));
+
+        when(jwtService.getLoggedUser()).thenReturn(guest);
+        final BookingResponseDTO booking = bookingService.confirmHold(hold.getId());
+
+        assertThat(booking.getGuestName()).isEqualTo("Guest");
+        assertThat(bookingService.getBookingById(booking.getId()).getStartDate()).isEqualTo(LocalDate.parse("2025-06-01"));
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.confirmHold(hold.getId()));
+    }
+
+    @Test
+    void shouldFreeTheDatesOfAReleasedHold() {
+        final BookingRequestDTO bookingDTO = BookingRequestDTO.builder()
+                .propertyId(1L)
+                .startDate(LocalDate.parse("2025-06-01"))
+                .endDate(LocalDate.parse("2025-06-10"))
+                .build();
+
+        final HoldResponseDTO hold = bookingService.holdBooking(bookingDTO);
+        assertThrows(ConflictException.class, () -> bookingService.holdBooking(bookingDTO));
+
+        bookingService.releaseHold(hold.getId());
+
+        assertThat(bookingService.createBooking(bookingDTO).getId()).isNotNull();
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.releaseHold(hold.getId()));
+    }
 }
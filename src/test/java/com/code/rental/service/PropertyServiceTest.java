@@ -0,0 +1,240 @@
+package com.code.rental.service;
+
+import com.code.rental.controller.dto.request.BlockRequestDTO;
+import com.code.rental.controller.dto.request.BookingRequestDTO;
+import com.code.rental.controller.dto.request.PropertyRequestDTO;
+import com.code.rental.controller.dto.response.BatchCreatedResponseDTO;
+import com.code.rental.controller.dto.response.CalendarResponseDTO;
+import com.code.rental.controller.dto.response.DateRangeDTO;
+import com.code.rental.controller.dto.response.PageResponseDTO;
+import com.code.rental.controller.dto.response.PropertyResponseDTO;
+import com.code.rental.domain.Property;
+import com.code.rental.domain.User;
+import com.code.rental.exception.BadRequestException;
+import com.code.rental.exception.ResourceNotFoundException;
+import com.code.rental.repository.PropertyRepository;
+import com.code.rental.repository.UserRepository;
+import com.code.rental.security.jwt.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class PropertyServiceTest {
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BlockService blockService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private final LocalDate today = LocalDate.now();
+    private User owner;
+    private User guest;
+    private Property property;
+
+    @BeforeEach
+    @Transactional
+    public void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Owner")
+                .email("owner@gmail.com")
+                .password("123456")
+                .build());
+
+        guest = userRepository.save(User.builder()
+                .name("Guest")
+                .email("guest@gmail.com")
+                .password("123456")
+                .build());
+
+        property = propertyRepository.save(Property.builder()
+                .name("Beach House")
+                .description("3 bedroom beach house")
+                .location("Miami Beach")
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void shouldReturnUnavailableDays() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        blockService.createBlock(BlockRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(today.plusDays(10))
+                .endDate(today.plusDays(12))
+                .build());
+
+        when(jwtService.getLoggedUser()).thenReturn(guest);
+        bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(today.plusDays(13))
+                .endDate(today.plusDays(15))
+                .build());
+        final Long canceledId = bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(today.plusDays(20))
+                .endDate(today.plusDays(21))
+                .build()).getId();
+        bookingService.cancelBooking(canceledId);
+
+        final CalendarResponseDTO calendar = propertyService.getCalendar(property.getId(), today.plusDays(11), today.plusDays(30));
+        assertThat(calendar.getUnavailable())
+                .containsExactly(new DateRangeDTO(today.plusDays(11), today.plusDays(15)));
+    }
+
+    @Test
+    void shouldReturnEmptyCalendarForFreeProperty() {
+        final CalendarResponseDTO calendar = propertyService.getCalendar(property.getId(), today, today.plusDays(30));
+        assertThat(calendar.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    void shouldThrowCalendarIfPropertyNotFound() {
+        final ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
+            propertyService.getCalendar(999L, today, today.plusDays(30));
+        });
+        assertThat(ex.getMessage()).isEqualTo("Property not found with ID 999");
+    }
+
+    @Test
+    void shouldThrowCalendarIfRangeIsInvalid() {
+        final BadRequestException ex = assertThrows(BadRequestException.class, () -> {
+            propertyService.getCalendar(property.getId(), today.plusDays(1), today);
+        });
+        assertThat(ex.getMessage()).isEqualTo("From date must be before or the same day as to date");
+    }
+
+    @Test
+    void shouldFindAvailableProperties() {
+        final Property cabin = propertyRepository.save(Property.builder()
+                .name("Cabin")
+                .description("Mountain cabin")
+                .location("Aspen")
+                .owner(owner)
+                .build());
+
+        when(jwtService.getLoggedUser()).thenReturn(guest);
+        bookingService.createBooking(BookingRequestDTO.builder()
+                .propertyId(property.getId())
+                .startDate(today.plusDays(10))
+                .endDate(today.plusDays(12))
+                .build());
+
+        final PageResponseDTO<PropertyResponseDTO> overlapping =
+                propertyService.getAvailableProperties(today.plusDays(12), today.plusDays(14), null, null, 0, 20);
+        assertThat(overlapping.getContent()).extracting(PropertyResponseDTO::getId).containsExactly(cabin.getId());
+        assertThat(overlapping.isHasNext()).isFalse();
+
+        final PageResponseDTO<PropertyResponseDTO> free =
+                propertyService.getAvailableProperties(today.plusDays(13), today.plusDays(14), null, null, 0, 20);
+        assertThat(free.getContent()).extracting(PropertyResponseDTO::getId)
+                .containsExactly(property.getId(), cabin.getId());
+        assertThat(free.getContent().get(0).getOwnerId()).isEqualTo(owner.getId());
+
+        final PageResponseDTO<PropertyResponseDTO> byLocation =
+                propertyService.getAvailableProperties(today.plusDays(13), today.plusDays(14), "miami", null, 0, 20);
+        assertThat(byLocation.getContent()).extracting(PropertyResponseDTO::getId).containsExactly(property.getId());
+        assertThat(propertyService
+                .getAvailableProperties(today.plusDays(13), today.plusDays(14), " MIAMI B", null, 0, 20).getContent()).extracting(PropertyResponseDTO::getId).containsExactly(property.getId());
+    }
+
+    @Test
+    void shouldPaginateAvailableProperties() {
+        for (int i = 0; i < 4; i++) {
+            propertyRepository.save(Property.builder()
+                    .name("Apartment " + i)
+                    .location("Lisbon")
+                    .owner(owner)
+                    .build());
+        }
+
+        final PageResponseDTO<PropertyResponseDTO> second =
+                propertyService.getAvailableProperties(today, today.plusDays(1), null, null, 1, 2);
+        assertThat(second.getContent()).hasSize(2);
+        assertThat(second.isHasNext()).isTrue();
+
+        final PageResponseDTO<PropertyResponseDTO> last =
+                propertyService.getAvailableProperties(today, today.plusDays(1), null, null, 2, 2);
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.isHasNext()).isFalse();
+
+        final Long secondLastId = second.getContent().get(1).getId();
+        final PageResponseDTO<PropertyResponseDTO> afterSecond =
+                propertyService.getAvailableProperties(today, today.plusDays(1), null, secondLastId, 0, 2);
+        assertThat(afterSecond.getContent()).extracting(PropertyResponseDTO::getId)
+                .containsExactlyElementsOf(last.getContent().stream().map(PropertyResponseDTO::getId).toList());
+        assertThat(propertyService.getAvailableProperties(today, today.plusDays(1), "lisbon", secondLastId, 0, 2)
+                .getContent()).hasSize(1);
+    }
+
+    @Test
+    void shouldThrowAvailablePropertiesIfPageSizeIsInvalid() {
+        final BadRequestException ex = assertThrows(BadRequestException.class, () -> {
+            propertyService.getAvailableProperties(today, today.plusDays(1), null, null, 0, 1000);
+        });
+        assertThat(ex.getMessage()).isEqualTo("Page must be positive and size between 1 and 100");
+    }
+
+    @Test
+    void shouldCreatePropertiesInJdbcBatches() {
+        when(jwtService.getLoggedUser()).thenReturn(owner);
+        final List<PropertyRequestDTO> properties = IntStream.range(0, 2500)
+                .mapToObj(i -> PropertyRequestDTO.builder()
+                        .name("Apartment " + i)
+                        .location("Lisbon")
+                        .build())
+                .toList();
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final BatchCreatedResponseDTO result = propertyService.createProperties(properties);
+
+        assertThat(result.getCreated()).isEqualTo(2500);
+        assertThat(result.getIds()).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2500);
+        // 25 insert batches plus one sequence call per 50 IDs, instead of 2500 single-row inserts
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(100);
+        assertThat(propertyRepository.count()).isEqualTo(2501);
+        assertThat(propertyRepository.findById(result.getIds().get(2499)))
+                .hasValueSatisfying(created -> {
+                    assertThat(created.getName()).isEqualTo("Apartment 2499");
+                    assertThat(created.getOwner().getId()).isEqualTo(owner.getId());
+                });
+    }
+}
@@ -21,6 +21,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -106,12 +108,14 @@ public class UserServiceTest {
         when(userRepository.existsByEmail("john.doe@example.com")).thenReturn(false);
         when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(authService.authenticate(any(LoginDTO.class))).thenReturn(new LoginResponseDTO(1L));
+        when(authService.authenticated(any(User.class))).thenReturn(new LoginResponseDTO(1L));
 
         LoginResponseDTO response = userService.createUser(userRequestDTO);
 
         assertThat(response).isNotNull();
         assertThat(response.getUserId()).isEqualTo(1L);
+        verify(passwordEncoder, never()).matches(any(), any());
+        verify(authService, never()).authenticate(any(LoginDTO.class));
     }
 
     @Test